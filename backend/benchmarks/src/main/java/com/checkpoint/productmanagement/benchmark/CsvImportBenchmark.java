@@ -0,0 +1,91 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.service.CsvImportService;
+import com.checkpoint.productmanagement.service.ImportJob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a generated CSV file of {@code fileSizeMb} megabytes, one import per invocation,
+ * through the synchronous importer and through the streaming import job
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xms8g", "-Xmx8g"})
+public class CsvImportBenchmark {
+
+    @Param({"100"})
+    int fileSizeMb;
+
+    private Path csvFile;
+    private Fixtures fixtures;
+    private CsvImportService csvImportService;
+
+    @Setup(Level.Trial)
+    public void generateFile() throws IOException {
+        csvFile = Files.createTempFile("products-", ".csv");
+        long targetBytes = fileSizeMb * 1024L * 1024L;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile)) {
+            writer.write("name,category,price,quantity\n");
+            for (long row = 0; Files.size(csvFile) < targetBytes; row++) {
+                for (int i = 0; i < 10_000; i++, row++) {
+                    writer.write("Product " + row + ",Category " + (row % 50) + ","
+                            + random.nextInt(1, 100_000) / 100.0 + "," + random.nextInt(0, 1000) + "\n");
+                }
+                writer.flush();
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void freshServices() {
+        fixtures = new Fixtures();
+        csvImportService = fixtures.csvImportService();
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeServices() throws Exception {
+        fixtures.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(csvFile);
+    }
+
+    @Benchmark
+    public CsvImportService.ImportResult synchronousImport() {
+        return csvImportService.importProductsFromCsv(new PathMultipartFile(csvFile));
+    }
+
+    @Benchmark
+    public ImportJob streamingImport() throws IOException, InterruptedException {
+        ImportJob job = csvImportService.startImport(new PathMultipartFile(csvFile));
+        while (!job.isFinished()) {
+            Thread.sleep(5);
+        }
+        return job;
+    }
+}
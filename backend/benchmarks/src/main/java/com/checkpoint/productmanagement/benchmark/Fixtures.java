@@ -0,0 +1,161 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.changes.ChangeLog;
+import com.checkpoint.productmanagement.changes.ChangeLogProperties;
+import com.checkpoint.productmanagement.cluster.SequentialIdGenerator;
+import com.checkpoint.productmanagement.config.CsvImportProperties;
+import com.checkpoint.productmanagement.config.LowStockProperties;
+import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.journal.JournalProperties;
+import com.checkpoint.productmanagement.journal.OperationJournal;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
+import com.checkpoint.productmanagement.persistence.PersistenceProperties;
+import com.checkpoint.productmanagement.persistence.WriteAheadLog;
+import com.checkpoint.productmanagement.service.CsvImportService;
+import com.checkpoint.productmanagement.service.LoggingService;
+import com.checkpoint.productmanagement.service.LowStockPolicy;
+import com.checkpoint.productmanagement.service.OrderService;
+import com.checkpoint.productmanagement.service.ProductService;
+import com.checkpoint.productmanagement.stock.StockEngine;
+import com.checkpoint.productmanagement.store.CompactProductStore;
+import com.checkpoint.productmanagement.store.InMemoryProductStore;
+import com.checkpoint.productmanagement.store.MappedProductStore;
+import com.checkpoint.productmanagement.store.MappedStoreProperties;
+import com.checkpoint.productmanagement.store.OrderStoreProperties;
+import com.checkpoint.productmanagement.store.ProductStore;
+import com.checkpoint.productmanagement.store.SegmentedOrderStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Wires the services by hand, the way the Spring context would, with the operations log in a temp file
+ * and the write-ahead log disabled. Metrics go to an in-memory registry so their cost is part of every result.
+ */
+class Fixtures implements AutoCloseable {
+    final Path directory;
+    final OperationJournal journal;
+    final LoggingService loggingService;
+    final StockEngine stockEngine = new StockEngine();
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final InventoryMetrics metrics = new InventoryMetrics(meterRegistry);
+    final ProductService productService;
+    final OrderService orderService;
+    private final PersistenceProperties persistenceProperties = new PersistenceProperties();
+    private final WriteAheadLog writeAheadLog;
+    private final ChangeLog changeLog = new ChangeLog(new ChangeLogProperties());
+    private ThreadPoolTaskExecutor jobExecutor;
+    private ThreadPoolTaskExecutor workerExecutor;
+
+    Fixtures() {
+        this("heap");
+    }
+
+    /**
+     * @param storeType {@code heap}, {@code compact} or {@code mmap}, as in {@code product.store.type}
+     */
+    Fixtures(String storeType) {
+        try {
+            directory = Files.createTempDirectory("product-benchmark-");
+            JournalProperties journalProperties = new JournalProperties();
+            journalProperties.setPath(directory.resolve("operations.log").toString());
+            CustomizableThreadFactory journalThreads = new CustomizableThreadFactory("operations-journal-");
+            journalThreads.setDaemon(true);
+            journal = new OperationJournal(journalProperties, meterRegistry, journalThreads);
+            journal.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        persistenceProperties.setEnabled(false);
+        writeAheadLog = new WriteAheadLog(persistenceProperties);
+
+        loggingService = new LoggingService(journal);
+        productService = new ProductService(store(storeType), new SequentialIdGenerator(), loggingService, stockEngine, writeAheadLog,
+                changeLog, new LowStockPolicy(new LowStockProperties()), List.of(), metrics);
+        orderService = newOrderService();
+    }
+
+    /**
+     * An order service with an empty order history, sharing the catalog and stock
+     */
+    OrderService newOrderService() {
+        OrderStoreProperties properties = new OrderStoreProperties();
+        properties.setDirectory(directory.resolve("orders").toString());
+        SegmentedOrderStore orderStore = new SegmentedOrderStore(properties, persistenceProperties);
+        try {
+            orderStore.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new OrderService(productService, loggingService, stockEngine, writeAheadLog, changeLog, metrics, orderStore,
+                List.of(), new SequentialIdGenerator());
+    }
+
+    CsvImportService csvImportService() {
+        CsvImportProperties properties = new CsvImportProperties();
+        jobExecutor = executor(properties.getMaxConcurrentJobs(), "csv-import-");
+        workerExecutor = executor(properties.getWorkers(), "csv-worker-");
+        return new CsvImportService(productService, properties, jobExecutor, workerExecutor, metrics);
+    }
+
+    void populate(int products) {
+        for (int i = 0; i < products; i++) {
+            productService.createProduct(product(i, 999_999));
+        }
+    }
+
+    static ProductDto product(int index, int quantity) {
+        return new ProductDto(null, "Product " + index, "Category " + (index % 50),
+                BigDecimal.valueOf(100 + index % 10_000, 2), quantity);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (jobExecutor != null) {
+            jobExecutor.shutdown();
+            workerExecutor.shutdown();
+        }
+        journal.stop();
+        try (var files = Files.walk(directory)) {
+            files.sorted(java.util.Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private ProductStore store(String type) {
+        switch (type) {
+            case "heap":
+                return new InMemoryProductStore();
+            case "compact":
+                return new CompactProductStore();
+            case "mmap":
+                MappedStoreProperties properties = new MappedStoreProperties();
+                properties.setDirectory(directory.resolve("catalog").toString());
+                MappedProductStore store = new MappedProductStore(properties);
+                try {
+                    store.open();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return store;
+            default:
+                throw new IllegalArgumentException("Unknown store type: " + type);
+        }
+    }
+
+    private static ThreadPoolTaskExecutor executor(int threads, String prefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix(prefix);
+        executor.initialize();
+        return executor;
+    }
+}
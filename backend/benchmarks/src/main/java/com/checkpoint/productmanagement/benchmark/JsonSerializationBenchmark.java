@@ -0,0 +1,96 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.json.EntityJsonModule;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product and order serialization with the reflective bean serializers ({@code mapper=default}) and with
+ * {@link EntityJsonModule} ({@code mapper=entity}), configured as the application configures its mapper.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    private static final int LIST_SIZE = 1000;
+
+    @Param({"default", "entity"})
+    public String mapper;
+
+    private ObjectMapper objectMapper;
+    private Product product;
+    private List<Product> products;
+    private List<Order> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if (mapper.equals("entity")) {
+            objectMapper.registerModule(new EntityJsonModule());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        products = new ArrayList<>(LIST_SIZE);
+        orders = new ArrayList<>(LIST_SIZE);
+        for (int i = 0; i < LIST_SIZE; i++) {
+            LocalDateTime created = now.minusSeconds(i / 10).withNano(i * 1_000_003);
+            products.add(new Product((long) i + 1, "Product " + i, "Category " + (i % 20),
+                    new BigDecimal("19.99").add(BigDecimal.valueOf(i)), i % 50, i % 50 < 5, created, created));
+            orders.add(new Order((long) i + 1, (long) i + 1, "Product " + i, 1 + i % 5, created));
+        }
+        product = products.get(0);
+    }
+
+    @Benchmark
+    public byte[] productToBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public void productListToStream() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public void orderHistoryToStream() throws IOException {
+        try (SequenceWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .writeValuesAsArray(OutputStream.nullOutputStream())) {
+            for (Order order : orders) {
+                writer.write(order);
+            }
+        }
+    }
+}
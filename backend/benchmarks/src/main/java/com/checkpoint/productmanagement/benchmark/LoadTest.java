@@ -0,0 +1,242 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load test against a running backend, used to compare the platform thread mode with the
+ * virtual thread mode ({@code --spring.profiles.active=virtual}).
+ * Each stage keeps {@code concurrency} requests in flight for {@code duration} seconds, 80% product reads and
+ * 20% single-unit orders, and reports throughput and latency percentiles. The highest throughput stage that
+ * stays under 1% errors and within the p99 target is the max sustained RPS. Rows are appended to {@code --out}
+ * as CSV, so runs of both modes end up side by side.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.checkpoint.productmanagement.benchmark.LoadTest \
+ *     --label platform --stages 64,256,1024,4096 --duration 30 --p99-target-ms 100
+ * </pre>
+ */
+public class LoadTest {
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final int products;
+    private long firstProductId;
+
+    LoadTest(String baseUrl, int products) {
+        this.baseUrl = baseUrl;
+        this.products = products;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String label = options.getOrDefault("label", "run");
+        int[] stages = Arrays.stream(options.getOrDefault("stages", "64,256,1024,4096").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "30")));
+        double p99TargetMs = Double.parseDouble(options.getOrDefault("p99-target-ms", "100"));
+        Path out = Path.of(options.getOrDefault("out", "loadtest-results.csv"));
+
+        LoadTest test = new LoadTest(options.getOrDefault("url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("products", "1000")));
+        test.seed();
+        test.run(stages[0], Duration.ofSeconds(Math.min(10, duration.getSeconds())));
+
+        System.out.printf("%-10s %12s %10s %8s %9s %9s %9s%n",
+                "clients", "requests", "rps", "errors", "p50 ms", "p99 ms", "p999 ms");
+        StageResult best = null;
+        List<String> rows = new ArrayList<>();
+        for (int concurrency : stages) {
+            StageResult result = test.run(concurrency, duration);
+            System.out.printf("%-10d %12d %10.0f %8d %9.2f %9.2f %9.2f%n", concurrency, result.requests,
+                    result.rps(), result.errors, result.percentileMs(0.5), result.percentileMs(0.99),
+                    result.percentileMs(0.999));
+            rows.add(String.format("%s,%d,%d,%.1f,%d,%.3f,%.3f,%.3f", label, concurrency, result.requests,
+                    result.rps(), result.errors, result.percentileMs(0.5), result.percentileMs(0.99),
+                    result.percentileMs(0.999)));
+            boolean sustained = result.errorRate() < MAX_ERROR_RATE && result.percentileMs(0.99) <= p99TargetMs;
+            if (sustained && (best == null || result.rps() > best.rps())) {
+                best = result;
+            }
+        }
+
+        if (best == null) {
+            System.out.printf("%s: no stage met p99 <= %.0f ms with < 1%% errors%n", label, p99TargetMs);
+        } else {
+            System.out.printf("%s: max sustained %.0f rps at %d clients, p99 %.2f ms%n",
+                    label, best.rps(), best.concurrency, best.percentileMs(0.99));
+        }
+
+        if (Files.notExists(out)) {
+            rows.add(0, "label,clients,requests,rps,errors,p50_ms,p99_ms,p999_ms");
+        }
+        Files.write(out, rows, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Create the products the load reads and orders from, with stock that will not run out
+     */
+    private void seed() throws IOException, InterruptedException {
+        for (int i = 0; i < products; i++) {
+            String body = String.format("{\"name\":\"Load %d\",\"category\":\"Load %d\",\"price\":9.99,\"quantity\":999999}",
+                    i, i % 20);
+            HttpResponse<String> response = client.send(post("/api/products", body), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201 && response.statusCode() != 200) {
+                throw new IllegalStateException("Could not create product: " + response.statusCode() + " " + response.body());
+            }
+            if (i == 0) {
+                String json = response.body();
+                int start = json.indexOf("\"id\":") + 5;
+                firstProductId = Long.parseLong(json.substring(start, json.indexOf(',', start)));
+            }
+        }
+    }
+
+    private StageResult run(int concurrency, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<Client> clients = new ArrayList<>(concurrency);
+        CompletableFuture<?>[] done = new CompletableFuture<?>[concurrency];
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            Client c = new Client(deadline, errors);
+            clients.add(c);
+            done[i] = c.finished;
+            c.next();
+        }
+        CompletableFuture.allOf(done).join();
+        long elapsed = System.nanoTime() - start;
+
+        int total = clients.stream().mapToInt(c -> c.count).sum();
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, latencies, offset, c.count);
+            offset += c.count;
+        }
+        Arrays.sort(latencies);
+        return new StageResult(concurrency, total, errors.get(), elapsed, latencies);
+    }
+
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long productId = firstProductId + random.nextInt(products);
+        if (random.nextInt(100) < 80) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+        }
+        return post("/api/orders", "{\"productId\":" + productId + ",\"quantity\":1}");
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * One simulated client: sends its next request as soon as the previous answer arrives.
+     * Callbacks of one client never overlap, so its latency buffer needs no synchronization.
+     */
+    private class Client {
+        private final long deadline;
+        private final AtomicLong errors;
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+        private long[] latencies = new long[1024];
+        private int count;
+
+        Client(long deadline, AtomicLong errors) {
+            this.deadline = deadline;
+            this.errors = errors;
+        }
+
+        void next() {
+            if (System.nanoTime() >= deadline) {
+                finished.complete(null);
+                return;
+            }
+            long sent = System.nanoTime();
+            client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        record(System.nanoTime() - sent);
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                        next();
+                    });
+        }
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static class StageResult {
+        final int concurrency;
+        final long requests;
+        final long errors;
+        final long elapsedNanos;
+        final long[] sortedLatencies;
+
+        StageResult(int concurrency, long requests, long errors, long elapsedNanos, long[] sortedLatencies) {
+            this.concurrency = concurrency;
+            this.requests = requests;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+            this.sortedLatencies = sortedLatencies;
+        }
+
+        double rps() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        double errorRate() {
+            return requests == 0 ? 1 : (double) errors / requests;
+        }
+
+        double percentileMs(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.service.LoggingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoggingService.logOperation throughput, including the cost of waiting for the journal writer
+ * once its ring buffer is full
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoggingServiceBenchmark {
+    private Fixtures fixtures;
+    private LoggingService loggingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new Fixtures();
+        loggingService = fixtures.loggingService;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixtures.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void logOperation1Thread() {
+        loggingService.logOperation("ORDER", 42L, "Product 42", 3);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void logOperation8Threads() {
+        loggingService.logOperation("ORDER", 42L, "Product 42", 3);
+    }
+}
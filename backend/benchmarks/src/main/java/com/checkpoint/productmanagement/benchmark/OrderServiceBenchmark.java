@@ -0,0 +1,95 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.dto.OrderDto;
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.service.OrderService;
+import com.checkpoint.productmanagement.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.processOrder throughput with one hot SKU or orders spread over the whole catalog.
+ * Sold-out products are restocked in place so the measurement keeps exercising successful orders.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class OrderServiceBenchmark {
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"hot", "uniform"})
+    String distribution;
+
+    private Fixtures fixtures;
+    private ProductService productService;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new Fixtures();
+        fixtures.populate(PRODUCTS);
+        productService = fixtures.productService;
+    }
+
+    /**
+     * A fresh OrderService per iteration keeps the in-memory order history from growing across the run
+     */
+    @Setup(Level.Iteration)
+    public void resetOrders() {
+        orderService = fixtures.newOrderService();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixtures.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Order processOrder1Thread() {
+        return order();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Order processOrder8Threads() {
+        return order();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public Order processOrder64Threads() {
+        return order();
+    }
+
+    private Order order() {
+        long productId = "hot".equals(distribution) ? 1 : 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+        OrderDto orderDto = new OrderDto();
+        orderDto.setProductId(productId);
+        orderDto.setQuantity(1);
+        try {
+            return orderService.processOrder(orderDto);
+        } catch (IllegalArgumentException soldOut) {
+            productService.updateProduct(productId, Fixtures.product((int) productId, 999_999));
+            return null;
+        }
+    }
+}
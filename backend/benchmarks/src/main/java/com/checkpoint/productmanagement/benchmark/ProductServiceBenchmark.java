@@ -0,0 +1,89 @@
+package com.checkpoint.productmanagement.benchmark;
+
+import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService operations against catalogs of different sizes, on each product store
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ProductServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"heap", "compact", "mmap"})
+    String store;
+
+    private Fixtures fixtures;
+    private ProductService productService;
+    private ProductDto update;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = new Fixtures(store);
+        fixtures.populate(size);
+        productService = fixtures.productService;
+        update = Fixtures.product(7, 3);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixtures.close();
+    }
+
+    @Benchmark
+    public Product create() {
+        return productService.createProduct(update);
+    }
+
+    @Benchmark
+    public Optional<Product> getById() {
+        return productService.getProductById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Product> update() {
+        return productService.updateProduct(randomId(), update);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Product> getAllProducts() {
+        return productService.getAllProducts();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Product> getLowStockProducts() {
+        return productService.getLowStockProducts();
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextInt(size);
+    }
+}
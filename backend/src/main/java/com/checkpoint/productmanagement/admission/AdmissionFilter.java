@@ -0,0 +1,171 @@
+package com.checkpoint.productmanagement.admission;
+
+import com.checkpoint.productmanagement.cluster.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Admission control of API requests, before any work is done for them.
+ * <ul>
+ *     <li>a client over the rate limit of an endpoint gets 429 with the seconds until it may retry</li>
+ *     <li>a request over its priority's share of the adaptive concurrency limit gets 503 with Retry-After,
+ *     so bulk work is shed first and single product reads and orders last</li>
+ * </ul>
+ * The slot of a request is held until its response is complete, streamed and asynchronous responses included.
+ * Requests forwarded by another node of the cluster were rate limited where they came in and only take
+ * a concurrency slot here. Runs after the HTTP metrics filter, so refused requests show in
+ * {@code http_server_requests}.
+ */
+@Component
+@ConditionalOnProperty(name = "admission.enabled", havingValue = "true", matchIfMissing = true)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(AdmissionProperties.class)
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionFilter extends OncePerRequestFilter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final AdmissionProperties properties;
+    private final RateLimiter rateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Counter[] rateLimited = new Counter[Endpoint.values().length];
+    private final Counter[] shed = new Counter[Endpoint.values().length];
+
+    public AdmissionFilter(AdmissionProperties properties, MeterRegistry registry) {
+        this.properties = properties;
+        this.rateLimiter = new RateLimiter(properties.getMaxClients());
+        this.concurrencyLimiter = new ConcurrencyLimiter(properties);
+        for (Map.Entry<Endpoint, AdmissionProperties.RateLimit> limit : properties.getRateLimits().entrySet()) {
+            if (!(limit.getValue().getPerSecond() > 0)) {
+                throw new IllegalArgumentException("admission.rate-limits." + limit.getKey() + ".per-second must be positive");
+            }
+        }
+        for (Endpoint endpoint : Endpoint.values()) {
+            rateLimited[endpoint.ordinal()] = rejections(registry, endpoint, "rate_limit");
+            shed[endpoint.ordinal()] = rejections(registry, endpoint, "overload");
+        }
+        Gauge.builder("admission.concurrency.limit", concurrencyLimiter, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive limit of API requests in flight")
+                .register(registry);
+        Gauge.builder("admission.concurrency.in.flight", concurrencyLimiter, ConcurrencyLimiter::getInFlight)
+                .description("API requests in flight")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Endpoint endpoint = Endpoint.of(request.getMethod(), request.getRequestURI());
+        if (endpoint == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdmissionProperties.RateLimit limit = properties.getRateLimits().get(endpoint);
+        if (limit != null && request.getHeader(ShardRouter.FORWARDED_HEADER) == null) {
+            long wait = rateLimiter.tryAcquire(client(request) + ' ' + endpoint, limit.getPerSecond(), limit.getBurst());
+            if (wait > 0) {
+                rateLimited[endpoint.ordinal()].increment();
+                refuse(response, HttpStatus.TOO_MANY_REQUESTS, (wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+                return;
+            }
+        }
+
+        Endpoint.Priority priority = endpoint.priority();
+        if (!concurrencyLimiter.tryAcquire(priority)) {
+            shed[endpoint.ordinal()].increment();
+            refuse(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+        // Bulk requests are slow by nature, their latency would only drag the limit down
+        AdmissionSlot slot = new AdmissionSlot(concurrencyLimiter, priority != Endpoint.Priority.BULK);
+        request.setAttribute(AdmissionSlot.ATTRIBUTE, slot);
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                // Streamed responses go on after this returns, the async dispatch is not filtered again
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(slot));
+            }
+        } finally {
+            if (!async && !slot.isDetached()) {
+                slot.release(true);
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class ReleaseOnCompletion implements AsyncListener {
+        private final AdmissionSlot slot;
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Restarted async processing keeps its slot, the listener has to be added again
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (!slot.isDetached()) {
+                slot.release(false);
+            }
+        }
+    }
+
+    private String client(HttpServletRequest request) {
+        if (!properties.getClientHeader().isEmpty()) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (client != null && !client.isEmpty()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void refuse(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    private static Counter rejections(MeterRegistry registry, Endpoint endpoint, String reason) {
+        return Counter.builder("admission.rejected")
+                .description("API requests refused before being served")
+                .tag("endpoint", endpoint.name().toLowerCase())
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
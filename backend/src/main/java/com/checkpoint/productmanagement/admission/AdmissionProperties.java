@@ -0,0 +1,45 @@
+package com.checkpoint.productmanagement.admission;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of admission control: per-client rate limits and the adaptive concurrency limit
+ */
+@Data
+@ConfigurationProperties(prefix = "admission")
+public class AdmissionProperties {
+
+    @Data
+    public static class RateLimit {
+        /** Sustained requests per second of one client */
+        private double perSecond;
+        /** Requests one client may send at once above the sustained rate */
+        private int burst = 1;
+    }
+
+    private boolean enabled = true;
+    /** Header naming the client, e.g. an API key header; the remote address when empty or missing */
+    private String clientHeader = "";
+    /** Rate limits per client by endpoint; endpoints without one are not rate limited */
+    private Map<Endpoint, RateLimit> rateLimits = new EnumMap<>(Endpoint.class);
+    /** Clients whose rate limit state is kept at most; the least recently seen are dropped first */
+    private long maxClients = 100_000;
+
+    /** Concurrency limit at startup */
+    private int initialLimit = 100;
+    private int minLimit = 10;
+    private int maxLimit = 200;
+    /** A CRITICAL or NORMAL request slower than this shrinks the concurrency limit */
+    private Duration latencyThreshold = Duration.ofMillis(250);
+    /** Factor the limit is multiplied by on a slow request, at most once per round of requests in flight */
+    private double backoffRatio = 0.9;
+    /** Share of the limit NORMAL requests may use; the rest is kept for CRITICAL ones */
+    private double normalShare = 0.9;
+    /** Share of the limit BULK requests may use */
+    private double bulkShare = 0.5;
+}
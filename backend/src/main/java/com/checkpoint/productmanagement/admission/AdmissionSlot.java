@@ -0,0 +1,61 @@
+package com.checkpoint.productmanagement.admission;
+
+import jakarta.servlet.ServletRequest;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The concurrency slot held by an admitted request.
+ * It is given back when the request completes, asynchronous responses included. Work that goes on in the
+ * background after the response, such as an async CSV import, takes the slot over with {@link #detach} and
+ * releases it when it is done.
+ */
+public class AdmissionSlot {
+    static final String ATTRIBUTE = AdmissionSlot.class.getName();
+    private static final AdmissionSlot NONE = new AdmissionSlot(null, false);
+
+    private final ConcurrencyLimiter limiter;
+    private final boolean measured;
+    private final long start = System.nanoTime();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private volatile boolean detached;
+
+    AdmissionSlot(ConcurrencyLimiter limiter, boolean measured) {
+        this.limiter = limiter;
+        this.measured = measured;
+    }
+
+    /**
+     * Take over the slot of a request, so it is held after the response until {@link #release()} is called.
+     * Returns a slot that does nothing when the request holds none, e.g. with admission control off.
+     */
+    public static AdmissionSlot detach(ServletRequest request) {
+        Object slot = request.getAttribute(ATTRIBUTE);
+        if (!(slot instanceof AdmissionSlot admitted)) {
+            return NONE;
+        }
+        admitted.detached = true;
+        return admitted;
+    }
+
+    /**
+     * Give the slot back; only the first call counts
+     */
+    public void release() {
+        release(false);
+    }
+
+    boolean isDetached() {
+        return detached;
+    }
+
+    /**
+     * Give the slot back. The latency feeds the concurrency limit only for requests served on the request
+     * thread; streamed and background work take as long as the client or the data make them.
+     */
+    void release(boolean onRequestThread) {
+        if (limiter != null && released.compareAndSet(false, true)) {
+            limiter.release(measured && onRequestThread ? System.nanoTime() - start : -1);
+        }
+    }
+}
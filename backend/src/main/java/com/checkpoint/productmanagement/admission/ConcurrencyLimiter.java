@@ -0,0 +1,97 @@
+package com.checkpoint.productmanagement.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limit of requests in flight that adapts to latency, additive increase and multiplicative decrease:
+ * it shrinks by {@code backoffRatio} on a slow request and grows by about one per limit's worth of fast
+ * requests while at least half of it is used. A slow request only shrinks it if it started after the last
+ * decrease, so one latency spike seen by every request in flight shrinks it once, not once per request. Lower priorities may only fill a share of it, so they are
+ * refused first as the limit comes down.
+ */
+public class ConcurrencyLimiter {
+    private final AdmissionProperties properties;
+    private final long latencyThreshold;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Double bits of the current limit
+    private final AtomicLong limit;
+    // System.nanoTime() of the last decrease
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    public ConcurrencyLimiter(AdmissionProperties properties) {
+        if (properties.getMinLimit() < 1 || properties.getMaxLimit() < properties.getMinLimit()) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min-limit <= max-limit");
+        }
+        this.properties = properties;
+        this.latencyThreshold = properties.getLatencyThreshold().toNanos();
+        double initial = Math.max(properties.getMinLimit(), Math.min(properties.getMaxLimit(), properties.getInitialLimit()));
+        this.limit = new AtomicLong(Double.doubleToRawLongBits(initial));
+    }
+
+    /**
+     * Take a slot for a request of the given priority, false if its share of the limit is in use
+     */
+    public boolean tryAcquire(Endpoint.Priority priority) {
+        int allowed = Math.max(1, (int) (getLimit() * share(priority)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Give back a slot and adjust the limit to the request latency.
+     * A negative latency only gives the slot back, for requests whose latency says nothing about load.
+     */
+    public void release(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        if (latencyNanos < 0) {
+            return;
+        }
+        boolean slow = latencyNanos > latencyThreshold;
+        if (slow) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+            if (now - latencyNanos - last < 0 || !lastDecrease.compareAndSet(last, now)) {
+                return;
+            }
+        }
+        while (true) {
+            long bits = limit.get();
+            double value = Double.longBitsToDouble(bits);
+            double next;
+            if (slow) {
+                next = Math.max(properties.getMinLimit(), value * properties.getBackoffRatio());
+            } else if (current * 2 >= value) {
+                next = Math.min(properties.getMaxLimit(), value + 1 / value);
+            } else {
+                return;
+            }
+            if (next == value || limit.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    public double getLimit() {
+        return Double.longBitsToDouble(limit.get());
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private double share(Endpoint.Priority priority) {
+        return switch (priority) {
+            case CRITICAL -> 1;
+            case NORMAL -> properties.getNormalShare();
+            case BULK -> properties.getBulkShare();
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.checkpoint.productmanagement.admission;
+
+/**
+ * API endpoints as seen by admission control, each with the priority it keeps under overload
+ */
+public enum Endpoint {
+    PRODUCT_READ(Priority.CRITICAL),
+    ORDER(Priority.CRITICAL),
+    READ(Priority.NORMAL),
+    WRITE(Priority.NORMAL),
+    BULK_WRITE(Priority.BULK),
+    IMPORT(Priority.BULK),
+    EXPORT(Priority.BULK);
+
+    /**
+     * Under overload BULK requests are refused first and CRITICAL ones last
+     */
+    public enum Priority { CRITICAL, NORMAL, BULK }
+
+    private final Priority priority;
+
+    Endpoint(Priority priority) {
+        this.priority = priority;
+    }
+
+    public Priority priority() {
+        return priority;
+    }
+
+    /**
+     * The endpoint of an API request, or null for requests admission control leaves alone:
+     * non-API paths and the long-lived change and low-stock streams
+     */
+    public static Endpoint of(String method, String path) {
+        if (!path.startsWith("/api/") || path.startsWith("/api/changes") || path.equals("/api/products/low-stock/stream")) {
+            return null;
+        }
+        boolean get = "GET".equals(method);
+        if (path.startsWith("/api/products/")) {
+            String rest = path.substring("/api/products/".length());
+            if (get && !rest.isEmpty() && rest.chars().allMatch(Character::isDigit)) {
+                return PRODUCT_READ;
+            }
+            if (rest.equals("bulk")) {
+                return BULK_WRITE;
+            }
+            if (get && rest.equals("export")) {
+                return EXPORT;
+            }
+            if ("POST".equals(method) && (rest.equals("import") || rest.equals("import/async"))) {
+                return IMPORT;
+            }
+        }
+        if ("POST".equals(method) && (path.equals("/api/orders") || path.equals("/api/orders/batch"))) {
+            return ORDER;
+        }
+        return get ? READ : WRITE;
+    }
+}
@@ -0,0 +1,45 @@
+package com.checkpoint.productmanagement.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per key, kept as the generic cell rate algorithm: each key holds the time its bucket would be
+ * full again, and a request is admitted with one compare-and-set on it, so no lock is ever taken.
+ */
+public class RateLimiter {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(long maxKeys) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * Take a token for {@code key} from a bucket refilled at {@code perSecond} holding at most {@code burst}.
+     * Returns 0 when the request is admitted, otherwise the nanoseconds until a token will be available.
+     */
+    public long tryAcquire(String key, double perSecond, int burst) {
+        long interval = (long) (NANOS_PER_SECOND / perSecond);
+        long tolerance = interval * (Math.max(burst, 1) - 1);
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long arrival = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            if (arrival - now > tolerance) {
+                return arrival - now - tolerance;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + interval)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.checkpoint.productmanagement.cache;
+
+import lombok.Value;
+
+/**
+ * A serialized JSON body and its strong ETag
+ */
+@Value
+public class CachedResponse {
+    byte[] body;
+    String etag;
+}
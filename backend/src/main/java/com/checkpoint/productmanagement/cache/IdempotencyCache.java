@@ -0,0 +1,136 @@
+package com.checkpoint.productmanagement.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Results of non-idempotent requests by their Idempotency-Key, so a client retry gets the first answer
+ * instead of running the request again.
+ * <p>
+ * The first request with a key registers itself with a single {@code putIfAbsent} and runs on its own
+ * thread, outside any lock. Duplicates arriving while it runs wait for its result rather than running
+ * too, and later ones get the stored result until it expires. A request that fails leaves no entry,
+ * as it changed nothing, so a retry runs again.
+ * <p>
+ * Requests in progress are held in an unbounded map and only move to the bounded, expiring cache once they
+ * succeed, so however many keys arrive at once, a running request is never evicted and run a second time.
+ */
+@Component
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyCache {
+
+    /**
+     * The result of a request and whether it was replayed from an earlier request with the same key
+     */
+    @Value
+    public static class Outcome<T> {
+        T value;
+        boolean replayed;
+    }
+
+    /**
+     * A key reused with a different request
+     */
+    public static class KeyReusedException extends RuntimeException {
+        KeyReusedException(String key) {
+            super("Idempotency key " + key + " was used with a different request");
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Execution {
+        final Object request;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+    }
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final ConcurrentMap<String, Execution> running = new ConcurrentHashMap<>();
+    private final Cache<String, Execution> completed;
+
+    public IdempotencyCache(IdempotencyProperties properties, MeterRegistry registry) {
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxEntries())
+                .expireAfterWrite(properties.getTtl())
+                .build();
+        CaffeineCacheMetrics.monitor(registry, completed, "idempotency");
+    }
+
+    /**
+     * Run {@code action} once per key within {@code scope}, or return the result of the run already done
+     * or in progress for that key. {@code request} must equal the request of that run.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String scope, String key, Object request, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = scope + ':' + key;
+        Execution execution = new Execution(request);
+        Execution first = completed.getIfPresent(cacheKey);
+        if (first == null) {
+            first = running.putIfAbsent(cacheKey, execution);
+        }
+        if (first == null) {
+            // A run may have completed between the two lookups: it is cached before it leaves the running map
+            Execution done = completed.getIfPresent(cacheKey);
+            if (done != null) {
+                // Duplicates that found this execution meanwhile get what they would have got from the cache
+                if (done.request.equals(request)) {
+                    execution.result.complete(done.result.join());
+                } else {
+                    execution.result.completeExceptionally(new KeyReusedException(key));
+                }
+                running.remove(cacheKey, execution);
+                first = done;
+            }
+        }
+        if (first != null) {
+            if (!first.request.equals(request)) {
+                throw new KeyReusedException(key);
+            }
+            return new Outcome<>((T) await(first.result), true);
+        }
+
+        try {
+            T value = action.get();
+            execution.result.complete(value);
+            completed.put(cacheKey, execution);
+            running.remove(cacheKey, execution);
+            return new Outcome<>(value, false);
+        } catch (RuntimeException | Error e) {
+            running.remove(cacheKey, execution);
+            execution.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The result of the first run, rethrowing its failure as it was thrown there
+     */
+    private static Object await(CompletableFuture<Object> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.checkpoint.productmanagement.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Idempotency-Key dedup cache
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.idempotency")
+public class IdempotencyProperties {
+    /** How long a completed request is replayed for its key */
+    private Duration ttl = Duration.ofHours(1);
+    /** Completed requests kept at most; the least used are dropped first */
+    private long maxEntries = 100_000;
+}
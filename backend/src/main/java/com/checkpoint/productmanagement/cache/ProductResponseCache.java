@@ -0,0 +1,225 @@
+package com.checkpoint.productmanagement.cache;
+
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the serialized JSON of product reads, bounded by bytes with W-TinyLFU eviction.
+ * <p>
+ * Single products are cached by id and dropped when that product changes. Lists are cached by request
+ * together with the window of products they cover (filters, cursor and last item), and a change drops
+ * only the lists whose window holds the product before or after the change. Lists are indexed by their
+ * category filter, so a change only tests the lists of its product's categories and those spanning every
+ * category, not every cached list. Concurrent misses of one list wait for a single load, and a list body above
+ * {@code cache.response.list-max-bytes} is not kept, as changes to any product would drop it again at once.
+ * Orders and CSV imports go through the same product writes, so every change
+ * that shows in a response is seen here.
+ */
+@Component
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ProductResponseCache implements ProductChangeListener {
+
+    /**
+     * A list response body, the products it covers and the one category they are all in, or null
+     */
+    @Value
+    public static class Listing {
+        Object body;
+        Predicate<Product> window;
+        String category;
+    }
+
+    @Value
+    private static class CachedListing {
+        CachedResponse response;
+        Predicate<Product> window;
+        String category;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long listMaxBytes;
+    private final Cache<Long, CachedResponse> products;
+    private final Cache<String, CachedListing> lists;
+    // Bumped before lists are invalidated, so a list loaded during a change is not kept
+    private final AtomicLong listGeneration = new AtomicLong();
+    // Keys of the cached lists by category filter. A key is added in the same compute that caches its list and
+    // removed once the list is gone, so every cached list is always indexed
+    private final ConcurrentMap<String, Set<String>> listsByCategory = new ConcurrentHashMap<>();
+    private final Set<String> listsOfAllCategories = ConcurrentHashMap.newKeySet();
+    // Lists last seen above the size cap, loaded without the cache so their misses do not queue on one another.
+    // Pages are capped in items well below it, so only the unbounded lists end up here
+    private final Set<String> oversized = ConcurrentHashMap.newKeySet();
+
+    public ProductResponseCache(ResponseCacheProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this.objectMapper = objectMapper;
+        this.listMaxBytes = properties.getListMaxBytes();
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(properties.getProductsMaxBytes())
+                .<Long, CachedResponse>weigher((id, response) -> response.getBody().length)
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(properties.getListsMaxBytes())
+                .<String, CachedListing>weigher((key, listing) -> listing.getResponse().getBody().length)
+                .removalListener((String key, CachedListing listing, RemovalCause cause) -> {
+                    if (cause != RemovalCause.REPLACED) {
+                        unindex(key, listing.getCategory());
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, lists, "productLists");
+    }
+
+    /**
+     * The cached product, loaded and serialized on a miss. Missing products are not cached.
+     * The load runs atomically for the id, and an invalidation of the id waits for it, so a product
+     * read before a write can never be kept after it.
+     */
+    public Optional<CachedResponse> product(Long id, Supplier<Optional<Product>> loader) {
+        return Optional.ofNullable(products.get(id, key -> loader.get().map(this::serialize).orElse(null)));
+    }
+
+    /**
+     * The cached list for a request key, loaded and serialized on a miss
+     */
+    public CachedResponse list(String key, Supplier<Listing> loader) {
+        if (oversized.contains(key)) {
+            CachedResponse response = serialize(loader.get().getBody());
+            if (response.getBody().length <= listMaxBytes) {
+                oversized.remove(key);
+            }
+            return response;
+        }
+        long generation = listGeneration.get();
+        CachedResponse[] loaded = new CachedResponse[1];
+        // Runs once per key while other readers of the key wait for it
+        CachedListing cached = lists.get(key, k -> {
+            Listing listing = loader.get();
+            loaded[0] = serialize(listing.getBody());
+            if (loaded[0].getBody().length > listMaxBytes) {
+                oversized.add(k);
+                return null;
+            }
+            indexed(listing.getCategory()).add(k);
+            return new CachedListing(loaded[0], listing.getWindow(), listing.getCategory());
+        });
+        if (cached == null) {
+            return loaded[0];
+        }
+        // A change that started after the load may have missed the entry just added
+        if (loaded[0] != null && listGeneration.get() != generation) {
+            lists.invalidate(key);
+        }
+        return cached.getResponse();
+    }
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        products.invalidate(change.getProductId());
+
+        List<Product> states = new ArrayList<>(2);
+        if (change.getBefore() != null) {
+            states.add(change.getBefore());
+        }
+        if (change.getAfter() != null) {
+            states.add(change.getAfter());
+        }
+        listGeneration.incrementAndGet();
+        invalidateLists(states);
+    }
+
+    /**
+     * Invalidate a whole batch with one pass over the lists of its categories
+     */
+    @Override
+    public void onProductChanges(List<ProductChange> changes) {
+        List<Product> states = new ArrayList<>(changes.size() * 2);
+        for (ProductChange change : changes) {
+            products.invalidate(change.getProductId());
+            if (change.getBefore() != null) {
+                states.add(change.getBefore());
+            }
+            if (change.getAfter() != null) {
+                states.add(change.getAfter());
+            }
+        }
+        listGeneration.incrementAndGet();
+        invalidateLists(states);
+    }
+
+    /**
+     * Drop the lists whose window holds any of the product states
+     */
+    private void invalidateLists(List<Product> states) {
+        Set<String> keys = new HashSet<>(listsOfAllCategories);
+        for (Product state : states) {
+            Set<String> ofCategory = listsByCategory.get(state.getCategory());
+            if (ofCategory != null) {
+                keys.addAll(ofCategory);
+            }
+        }
+        for (String key : keys) {
+            lists.asMap().computeIfPresent(key, (k, listing) ->
+                    states.stream().anyMatch(listing.getWindow()) ? null : listing);
+        }
+    }
+
+    private Set<String> indexed(String category) {
+        return category == null
+                ? listsOfAllCategories
+                : listsByCategory.computeIfAbsent(category, c -> ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Forget a list that left the cache, unless it was cached again meanwhile
+     */
+    private void unindex(String key, String category) {
+        lists.asMap().compute(key, (k, current) -> {
+            if (current == null) {
+                if (category == null) {
+                    listsOfAllCategories.remove(k);
+                } else {
+                    listsByCategory.computeIfPresent(category, (c, keys) -> {
+                        keys.remove(k);
+                        return keys.isEmpty() ? null : keys;
+                    });
+                }
+            }
+            return current;
+        });
+    }
+
+    private CachedResponse serialize(Object body) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(body);
+            return new CachedResponse(bytes, '"' + DigestUtils.md5DigestAsHex(bytes) + '"');
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.checkpoint.productmanagement.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the product response cache
+ */
+@Data
+@ConfigurationProperties(prefix = "cache.response")
+public class ResponseCacheProperties {
+    /** Serialized bytes kept for single products */
+    private long productsMaxBytes = 64L << 20;
+    /** Serialized bytes kept for product lists and pages */
+    private long listsMaxBytes = 64L << 20;
+    /** Larger list bodies, such as a big unfiltered catalog, are served but not cached */
+    private long listMaxBytes = 1L << 20;
+}
@@ -0,0 +1,25 @@
+package com.checkpoint.productmanagement.changes;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product or order write as published on the change stream.
+ * {@code product} holds the state after a creation or update and is null for deletions, {@code order} is only set
+ * for placed orders.
+ */
+@Value
+public class ChangeEvent {
+
+    public enum Type { PRODUCT_CREATED, PRODUCT_UPDATED, PRODUCT_DELETED, ORDER_PLACED }
+
+    long sequence;
+    Type type;
+    Long productId;
+    Product product;
+    Order order;
+    LocalDateTime timestamp;
+}
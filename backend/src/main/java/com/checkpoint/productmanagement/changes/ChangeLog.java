@@ -0,0 +1,158 @@
+package com.checkpoint.productmanagement.changes;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ring buffer of the latest product and order changes, numbered in the order they were applied.
+ * <p>
+ * ProductService records a change under the write lock of its product once the store holds it, so the changes
+ * of one product are numbered in the order they hit the store. Recording is lock-free: a writer claims a sequence
+ * number and then publishes the change into its slot, and readers stop at the first slot not published yet.
+ * Writers never wait for readers: once the buffer is full the oldest change is overwritten, and a reader still
+ * behind it is told so instead of skipping it. Restored writes are not recorded.
+ * <p>
+ * Sequence numbers start at the startup time in microseconds, so they keep growing across restarts and a
+ * position from an earlier run always falls before the window.
+ */
+@Component
+@EnableConfigurationProperties(ChangeLogProperties.class)
+public class ChangeLog {
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int capacity;
+    private final int mask;
+    private final long start;
+    private final AtomicLong next;
+    private final Set<Thread> waiters = ConcurrentHashMap.newKeySet();
+
+    public ChangeLog(ChangeLogProperties properties) {
+        if (properties.getCapacity() < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(properties.getCapacity() - 1) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.start = System.currentTimeMillis() * 1000;
+        this.next = new AtomicLong(start);
+    }
+
+    public void productCreated(Product product) {
+        append(ChangeEvent.Type.PRODUCT_CREATED, product.getId(), product, null);
+    }
+
+    public void productUpdated(Product product) {
+        append(ChangeEvent.Type.PRODUCT_UPDATED, product.getId(), product, null);
+    }
+
+    public void productDeleted(long productId) {
+        append(ChangeEvent.Type.PRODUCT_DELETED, productId, null, null);
+    }
+
+    public void orderPlaced(Order order) {
+        append(ChangeEvent.Type.ORDER_PLACED, order.getProductId(), null, order);
+    }
+
+    /**
+     * Sequence of the oldest change still kept
+     */
+    public long first() {
+        return Math.max(start, next.get() - capacity);
+    }
+
+    /**
+     * Sequence the next change will get
+     */
+    public long next() {
+        return next.get();
+    }
+
+    /**
+     * Copy up to {@code limit} published changes starting at sequence {@code from} into {@code into}.
+     * Returns false if {@code from} is no longer kept, whether it fell out before or during the read.
+     */
+    public boolean read(long from, int limit, List<ChangeEvent> into) {
+        if (from < first()) {
+            return false;
+        }
+        for (long sequence = from; sequence < from + limit; sequence++) {
+            ChangeEvent event = slots.get((int) sequence & mask);
+            if (event == null || event.getSequence() < sequence) {
+                // Claimed but not published yet, or not claimed at all
+                return true;
+            }
+            if (event.getSequence() != sequence) {
+                return false;
+            }
+            into.add(event);
+        }
+        return true;
+    }
+
+    /**
+     * Wait until the change with sequence {@code sequence} is published, at most {@code timeoutMillis}.
+     * Returns false on timeout.
+     */
+    public boolean await(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Thread thread = Thread.currentThread();
+        waiters.add(thread);
+        try {
+            // Checked after registering, so a change published meanwhile either is seen here or unparks us
+            while (!isPublished(sequence)) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return true;
+        } finally {
+            waiters.remove(thread);
+        }
+    }
+
+    /**
+     * Wake every waiting reader, e.g. on shutdown
+     */
+    public void wakeUp() {
+        waiters.forEach(LockSupport::unpark);
+    }
+
+    private boolean isPublished(long sequence) {
+        ChangeEvent event = slots.get((int) sequence & mask);
+        return event != null && event.getSequence() >= sequence;
+    }
+
+    private void append(ChangeEvent.Type type, Long productId, Product product, Order order) {
+        long sequence = next.getAndIncrement();
+        ChangeEvent event = new ChangeEvent(sequence, type, productId, product, order, LocalDateTime.now());
+        int slot = (int) sequence & mask;
+        while (true) {
+            ChangeEvent current = slots.get(slot);
+            // A writer a whole lap ahead already published over this slot: this change has left the window
+            if (current != null && current.getSequence() > sequence) {
+                break;
+            }
+            if (slots.compareAndSet(slot, current, event)) {
+                break;
+            }
+        }
+        if (!waiters.isEmpty()) {
+            wakeUp();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the change log and its streams
+ */
+@Data
+@ConfigurationProperties(prefix = "changes")
+public class ChangeLogProperties {
+    /** Changes kept for replay, rounded up to a power of two */
+    private int capacity = 65536;
+    /** Streams served at once, each on its own thread */
+    private int maxStreams = 16;
+    /** Changes written to a stream per flush at most */
+    private int batchSize = 512;
+    /** A keep-alive is sent after this long without changes */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+    /** Streams are closed after this long, clients resume from their last sequence */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,133 @@
+package com.checkpoint.productmanagement.changes;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams the change log to clients as NDJSON or Server-Sent Events, from a sequence they choose.
+ * <p>
+ * Each stream is pumped by its own thread, which writes batches of changes as fast as the client reads them:
+ * a slow client only holds up its own thread. A stream that falls behind the replay window is closed, and
+ * resuming it from its next sequence is then refused so the client knows to resync.
+ */
+@Component
+@Slf4j
+public class ChangeStreams {
+    private static final byte[] NDJSON_HEARTBEAT = "\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SSE_HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    public enum Format { NDJSON, SSE }
+
+    private final ChangeLog changeLog;
+    private final ChangeLogProperties properties;
+    private final ObjectWriter writer;
+    private final ThreadPoolExecutor pumps;
+    private volatile boolean closed;
+
+    public ChangeStreams(ChangeLog changeLog, ChangeLogProperties properties, ObjectMapper objectMapper,
+                         MeterRegistry registry, ThreadFactory changeStreamThreadFactory) {
+        this.changeLog = changeLog;
+        this.properties = properties;
+        this.writer = objectMapper.writer();
+        this.pumps = new ThreadPoolExecutor(0, properties.getMaxStreams(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), changeStreamThreadFactory);
+        Gauge.builder("changes.streams", pumps, ThreadPoolExecutor::getActiveCount)
+                .description("Change streams being served")
+                .register(registry);
+    }
+
+    /**
+     * Start streaming changes from sequence {@code from}, which must be between {@link ChangeLog#first()}
+     * and {@link ChangeLog#next()}. Throws RejectedExecutionException when {@code changes.max-streams}
+     * streams are already open.
+     */
+    public ResponseBodyEmitter open(long from, Format format) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(properties.getStreamTimeout().toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(error -> open.set(false));
+        if (closed) {
+            throw new RejectedExecutionException("Shutting down");
+        }
+        pumps.execute(() -> pump(emitter, open, from, format));
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        pumps.shutdown();
+        changeLog.wakeUp();
+    }
+
+    private void pump(ResponseBodyEmitter emitter, AtomicBoolean open, long from, Format format) {
+        long position = from;
+        List<ChangeEvent> batch = new ArrayList<>(properties.getBatchSize());
+        long heartbeat = properties.getHeartbeatInterval().toMillis();
+        try {
+            while (open.get() && !closed) {
+                batch.clear();
+                if (!changeLog.read(position, properties.getBatchSize(), batch)) {
+                    log.debug("Change stream at {} fell behind the log, closing it", position);
+                    break;
+                }
+                if (batch.isEmpty()) {
+                    if (!changeLog.await(position, heartbeat)) {
+                        emitter.send(format == Format.SSE ? SSE_HEARTBEAT : NDJSON_HEARTBEAT, MediaType.APPLICATION_OCTET_STREAM);
+                    }
+                    continue;
+                }
+                emitter.send(encode(batch, format), MediaType.APPLICATION_OCTET_STREAM);
+                position = batch.get(batch.size() - 1).getSequence() + 1;
+            }
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change stream at {}: {}", position, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * One buffer per batch, so a batch costs one write and one flush
+     */
+    private byte[] encode(List<ChangeEvent> batch, Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(batch.size() * 256);
+        try (JsonGenerator generator = writer.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (ChangeEvent event : batch) {
+                if (format == Format.SSE) {
+                    generator.writeRaw("id: " + event.getSequence() + "\nevent: " + event.getType() + "\ndata: ");
+                    writer.writeValue(generator, event);
+                    generator.writeRaw("\n\n");
+                } else {
+                    writer.writeValue(generator, event);
+                    generator.writeRaw('\n');
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+}
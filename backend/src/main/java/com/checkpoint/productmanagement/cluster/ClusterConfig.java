@@ -0,0 +1,45 @@
+package com.checkpoint.productmanagement.cluster;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Id generators of products and orders: sequential on a single instance, Snowflake ids in the sharded mode
+ */
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean
+    public IdGenerator productIdGenerator(ClusterProperties properties, Environment environment) {
+        return idGenerator(properties, environment);
+    }
+
+    @Bean
+    public IdGenerator orderIdGenerator(ClusterProperties properties, Environment environment) {
+        return idGenerator(properties, environment);
+    }
+
+    private static IdGenerator idGenerator(ClusterProperties properties, Environment environment) {
+        if (!properties.isEnabled()) {
+            return new SequentialIdGenerator();
+        }
+        int nodes = properties.getNodes().size();
+        if (nodes == 0 || nodes > SnowflakeIdGenerator.MAX_NODES) {
+            throw new IllegalArgumentException("cluster.nodes must list 1 to " + SnowflakeIdGenerator.MAX_NODES + " nodes");
+        }
+        if (properties.getNodeId() < 0 || properties.getNodeId() >= nodes) {
+            throw new IllegalArgumentException("cluster.node-id must be the index of this node in cluster.nodes");
+        }
+        // The memory-mapped store addresses products by id, which needs small dense ids
+        if ("mmap".equals(environment.getProperty("product.store.type"))) {
+            throw new IllegalArgumentException("The sharded mode needs product.store.type heap or compact");
+        }
+        if ("reactive".equals(environment.getProperty("spring.main.web-application-type"))) {
+            throw new IllegalArgumentException("The sharded mode routes requests in the servlet mode only");
+        }
+        return new SnowflakeIdGenerator(properties.getNodeId());
+    }
+}
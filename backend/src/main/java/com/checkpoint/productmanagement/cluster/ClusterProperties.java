@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.cluster;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the sharded mode
+ */
+@Data
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterProperties {
+    /** Split products and orders across the nodes below, each owning the ids it generated */
+    private boolean enabled = false;
+    /** Index of this instance in {@code nodes} */
+    private int nodeId = 0;
+    /** Base URLs of every instance, in node id order, this one included */
+    private List<String> nodes = new ArrayList<>();
+    /** Time to wait for another node to start answering a forwarded request */
+    private Duration requestTimeout = Duration.ofSeconds(10);
+}
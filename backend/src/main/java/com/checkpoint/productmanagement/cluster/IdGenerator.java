@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.cluster;
+
+/**
+ * Source of product or order ids
+ */
+public interface IdGenerator {
+
+    long nextId();
+
+    /**
+     * The id {@link #nextId()} would return now, kept in snapshots
+     */
+    long peekNextId();
+
+    /**
+     * Never return {@code id} or a smaller id again, after reading it back from a snapshot or the log
+     */
+    void skipPast(long id);
+
+    /**
+     * Never return an id below a value taken from {@link #peekNextId()}
+     */
+    void restoreNextId(long nextId);
+}
@@ -0,0 +1,30 @@
+package com.checkpoint.productmanagement.cluster;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids 1, 2, 3... of a single instance
+ */
+public class SequentialIdGenerator implements IdGenerator {
+    private final AtomicLong next = new AtomicLong(1);
+
+    @Override
+    public long nextId() {
+        return next.getAndIncrement();
+    }
+
+    @Override
+    public long peekNextId() {
+        return next.get();
+    }
+
+    @Override
+    public void skipPast(long id) {
+        next.accumulateAndGet(id + 1, Math::max);
+    }
+
+    @Override
+    public void restoreNextId(long nextId) {
+        next.accumulateAndGet(nextId, Math::max);
+    }
+}
@@ -0,0 +1,205 @@
+package com.checkpoint.productmanagement.cluster;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Requests between the nodes of the sharded mode.
+ * A product or order belongs to the node that generated its id, read from the node field of the
+ * {@link SnowflakeIdGenerator} id. Requests for it are forwarded there; listings ask every node
+ * and merge the sorted answers as they stream in, so no node holds the whole result.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ShardRouter {
+    /** Marks a request sent by another node, to be served locally */
+    public static final String FORWARDED_HEADER = "X-Shard-Forwarded";
+    private static final List<String> REQUEST_HEADERS = List.of("Content-Type", "Accept", "If-None-Match", "Idempotency-Key");
+    private static final List<String> RESPONSE_HEADERS = List.of("Content-Type", "ETag", "Idempotent-Replayed");
+
+    private final ClusterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient client;
+
+    public ShardRouter(ClusterProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * The node owning the product or order with this id
+     */
+    public int owner(long id) {
+        return SnowflakeIdGenerator.node(id) % properties.getNodes().size();
+    }
+
+    public boolean isLocal(int node) {
+        return node == properties.getNodeId();
+    }
+
+    /**
+     * Send the request to another node and copy its answer into the response
+     */
+    public void forward(int node, HttpServletRequest request, byte[] body, HttpServletResponse response)
+            throws IOException {
+        String query = request.getQueryString();
+        HttpRequest.Builder forwarded = newRequest(node, request.getRequestURI() + (query == null ? "" : "?" + query))
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String header : REQUEST_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                forwarded.header(header, value);
+            }
+        }
+        HttpResponse<InputStream> answer = send(forwarded.build());
+        response.setStatus(answer.statusCode());
+        for (String header : RESPONSE_HEADERS) {
+            answer.headers().firstValue(header).ifPresent(value -> response.setHeader(header, value));
+        }
+        try (InputStream in = answer.body()) {
+            in.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Write one list merging the local items with the lists answered by the other nodes for {@code pathAndQuery}.
+     * {@code format} is either JSON, for a JSON array, or NDJSON, for one item per line, and is used both ways.
+     * Every source must already be sorted by {@code order}.
+     */
+    public <T> void gather(String pathAndQuery, Class<T> type, Comparator<T> order, Stream<T> local, String format,
+                           HttpServletResponse response) throws IOException {
+        boolean ndjson = !MediaType.APPLICATION_JSON_VALUE.equals(format);
+        List<CompletableFuture<HttpResponse<InputStream>>> pending = new ArrayList<>();
+        for (int node = 0; node < properties.getNodes().size(); node++) {
+            if (!isLocal(node)) {
+                HttpRequest request = newRequest(node, pathAndQuery).header("Accept", format).GET().build();
+                pending.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream()));
+            }
+        }
+
+        List<MappingIterator<T>> remotes = new ArrayList<>();
+        try (local) {
+            for (CompletableFuture<HttpResponse<InputStream>> answer : pending) {
+                HttpResponse<InputStream> remote = await(answer);
+                if (remote.statusCode() != 200) {
+                    remote.body().close();
+                    throw new IOException(remote.uri() + " answered " + remote.statusCode());
+                }
+                remotes.add(objectMapper.readerFor(type).readValues(remote.body()));
+            }
+
+            PriorityQueue<Head<T>> heads = new PriorityQueue<>((a, b) -> order.compare(a.value, b.value));
+            Head.advance(heads, local.iterator());
+            for (MappingIterator<T> remote : remotes) {
+                Head.advance(heads, remote);
+            }
+            response.setContentType(format);
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (SequenceWriter items = ndjson
+                    ? writer.withRootValueSeparator("\n").writeValues(response.getOutputStream())
+                    : writer.writeValuesAsArray(response.getOutputStream())) {
+                boolean empty = heads.isEmpty();
+                while (!heads.isEmpty()) {
+                    Head<T> head = heads.poll();
+                    items.write(head.value);
+                    Head.advance(heads, head.source);
+                }
+                if (ndjson && !empty) {
+                    // The separator only goes between lines, the last one is ended here
+                    items.flush();
+                    response.getOutputStream().write('\n');
+                }
+            }
+        } finally {
+            for (MappingIterator<T> remote : remotes) {
+                remote.close();
+            }
+            pending.forEach(answer -> answer.thenAccept(remote -> close(remote.body())));
+        }
+    }
+
+    private HttpRequest.Builder newRequest(int node, String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(properties.getNodes().get(node) + pathAndQuery))
+                .timeout(properties.getRequestTimeout())
+                .header(FORWARDED_HEADER, String.valueOf(properties.getNodeId()));
+    }
+
+    private HttpResponse<InputStream> send(HttpRequest request) throws IOException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while forwarding to " + request.uri());
+        }
+    }
+
+    private static HttpResponse<InputStream> await(CompletableFuture<HttpResponse<InputStream>> answer)
+            throws IOException {
+        try {
+            return answer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while gathering from the other nodes");
+        } catch (ExecutionException e) {
+            throw new IOException("Could not reach a node", e.getCause());
+        }
+    }
+
+    private static void close(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            // Nothing more to read from it anyway
+        }
+    }
+
+    /**
+     * The next item of one source of a merge
+     */
+    private static final class Head<T> {
+        final T value;
+        final Iterator<T> source;
+
+        private Head(T value, Iterator<T> source) {
+            this.value = value;
+            this.source = source;
+        }
+
+        static <T> void advance(PriorityQueue<Head<T>> heads, Iterator<T> source) {
+            if (source.hasNext()) {
+                heads.add(new Head<>(source.next(), source));
+            }
+        }
+    }
+}
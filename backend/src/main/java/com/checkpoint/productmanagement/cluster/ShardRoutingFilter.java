@@ -0,0 +1,346 @@
+package com.checkpoint.productmanagement.cluster;
+
+import com.checkpoint.productmanagement.dto.ProductQuery;
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.service.OrderService;
+import com.checkpoint.productmanagement.service.ProductQueryService;
+import com.checkpoint.productmanagement.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes API requests in the sharded mode.
+ * <ul>
+ *     <li>reads, updates and deletes of one product or order go to the node owning its id</li>
+ *     <li>orders go to the node owning the product; a batch order stays all-or-nothing, so its lines must
+ *     all belong to one node</li>
+ *     <li>bulk updates and deletes go to the node owning their items, which must all belong to one node</li>
+ *     <li>the product list, the product export, the low-stock list and the order history are gathered from
+ *     every node</li>
+ *     <li>paged listings, search and the sales and inventory stats cannot be merged from the shards and are
+ *     refused with 501, rather than answered from one shard</li>
+ *     <li>everything else, creations included, is served by the node that received it, over its own shard</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+@Slf4j
+public class ShardRoutingFilter extends OncePerRequestFilter {
+    private static final Pattern PRODUCT = Pattern.compile("/api/products/(\\d+)");
+    private static final Pattern ORDER = Pattern.compile("/api/orders/(\\d+)");
+    private static final Pattern PRODUCT_SALES = Pattern.compile("/api/stats/sales/products/(\\d+)");
+    private static final Pattern CATEGORY_STATS = Pattern.compile("/api/stats/(sales|inventory)/categories/[^/]+");
+    private static final Set<String> SHARD_ONLY = Set.of("/api/products/page", "/api/products/search",
+            "/api/stats/sales", "/api/stats/sales/categories", "/api/stats/inventory/categories");
+    private static final String NDJSON = "application/x-ndjson";
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+    private static final Comparator<Order> BY_ORDER_DATE = Comparator.comparing(Order::getOrderDate)
+            .thenComparing(Order::getId);
+
+    private final ShardRouter router;
+    private final ProductService productService;
+    private final ProductQueryService productQueryService;
+    private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(ShardRouter.FORWARDED_HEADER) != null
+                || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        try {
+            if ("GET".equals(method) && gather(path, request, response)) {
+                return;
+            }
+            if ("GET".equals(method) && isShardOnly(path, request)) {
+                response.sendError(HttpServletResponse.SC_NOT_IMPLEMENTED, "Not available in the sharded mode");
+                return;
+            }
+            if ("POST".equals(method) && path.equals("/api/orders")) {
+                byte[] body = request.getInputStream().readAllBytes();
+                Long productId = productId(readTree(body));
+                route(productId == null ? null : router.owner(productId), request, body, response, chain);
+                return;
+            }
+            if ("POST".equals(method) && path.equals("/api/orders/batch")) {
+                routeBatch(request, response, chain);
+                return;
+            }
+            if (("PUT".equals(method) || "DELETE".equals(method)) && path.equals("/api/products/bulk")) {
+                routeBulk(request, response, chain);
+                return;
+            }
+            Long id = ownedId(path, method, request);
+            route(id == null ? null : router.owner(id), request, null, response, chain);
+        } catch (ShardUnavailableException e) {
+            log.warn("Could not route {} {}: {}", method, path, e.getCause().toString());
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+            }
+        }
+    }
+
+    /**
+     * Answer a listing from every node, or return false for other requests
+     */
+    private boolean gather(String path, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        try {
+            switch (path) {
+                case "/api/products" -> router.gather(path, Product.class, BY_ID,
+                        productService.getAllProducts().stream(), MediaType.APPLICATION_JSON_VALUE, response);
+                case "/api/products/export" -> {
+                    ProductQuery filter = exportQuery(request);
+                    if (filter == null) {
+                        response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                        return true;
+                    }
+                    String query = request.getQueryString();
+                    router.gather(query == null ? path : path + "?" + query, Product.class, BY_ID,
+                            productQueryService.streamProducts(filter), NDJSON, response);
+                }
+                case "/api/products/low-stock" -> router.gather(path, Product.class, BY_ID,
+                        productService.getLowStockProducts().stream(), MediaType.APPLICATION_JSON_VALUE, response);
+                case "/api/orders" -> router.gather(path, Order.class, BY_ORDER_DATE,
+                        orderService.streamOrders(), MediaType.APPLICATION_JSON_VALUE, response);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch (ShardUnavailableException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ShardUnavailableException(e);
+        }
+    }
+
+    /**
+     * Whether a read only sees the shard of the node serving it and cannot be merged with the others
+     */
+    private static boolean isShardOnly(String path, HttpServletRequest request) {
+        return SHARD_ONLY.contains(path)
+                || CATEGORY_STATS.matcher(path).matches()
+                || (path.equals("/api/orders/page") && request.getParameter("productId") == null);
+    }
+
+    /**
+     * The filters of an export, sorted by id as the merge needs; null when a parameter is malformed
+     */
+    private static ProductQuery exportQuery(HttpServletRequest request) {
+        ProductQuery query = new ProductQuery();
+        try {
+            query.setCategory(request.getParameter("category"));
+            String minPrice = request.getParameter("minPrice");
+            query.setMinPrice(minPrice == null ? null : new BigDecimal(minPrice));
+            String maxPrice = request.getParameter("maxPrice");
+            query.setMaxPrice(maxPrice == null ? null : new BigDecimal(maxPrice));
+            String lowStock = request.getParameter("lowStock");
+            query.setLowStock(lowStock == null ? null : Boolean.valueOf(lowStock));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        query.setSort(ProductQuery.SortField.ID);
+        return query;
+    }
+
+    private void routeBatch(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        JsonNode items = readTree(body).path("items");
+        Set<Integer> owners = new HashSet<>();
+        for (JsonNode item : items) {
+            Long productId = productId(item);
+            if (productId != null) {
+                owners.add(router.owner(productId));
+            }
+        }
+        if (owners.size() > 1) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        route(owners.isEmpty() ? null : owners.iterator().next(), request, body, response, chain);
+    }
+
+    /**
+     * Send a bulk update or delete to the node owning its items. Items stay independent, but results are
+     * reported per item in request order, so the items of one request must all belong to one node.
+     */
+    private void routeBulk(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] body = request.getInputStream().readAllBytes();
+        Set<Integer> owners = new HashSet<>();
+        try (MappingIterator<JsonNode> items = objectMapper.readerFor(JsonNode.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                JsonNode item = items.nextValue();
+                JsonNode id = item.isObject() ? item.get("id") : item;
+                if (id != null && id.canConvertToLong()) {
+                    owners.add(router.owner(id.asLong()));
+                }
+            }
+        } catch (IOException e) {
+            // Malformed items are left for the controller to report
+        }
+        if (owners.size() > 1) {
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        route(owners.isEmpty() ? null : owners.iterator().next(), request, body, response, chain);
+    }
+
+    /**
+     * The id deciding the owner of a request for one product or order, or null when any node can serve it
+     */
+    private static Long ownedId(String path, String method, HttpServletRequest request) {
+        Matcher product = PRODUCT.matcher(path);
+        if (product.matches()) {
+            return parseId(product.group(1));
+        }
+        if (!"GET".equals(method)) {
+            return null;
+        }
+        Matcher order = ORDER.matcher(path);
+        if (order.matches()) {
+            return parseId(order.group(1));
+        }
+        Matcher sales = PRODUCT_SALES.matcher(path);
+        if (sales.matches()) {
+            return parseId(sales.group(1));
+        }
+        if (path.equals("/api/orders/page") && request.getParameter("productId") != null) {
+            return parseId(request.getParameter("productId"));
+        }
+        return null;
+    }
+
+    /**
+     * Serve the request here when this node owns it or any node can, otherwise forward it to the owner
+     */
+    private void route(Integer node, HttpServletRequest request, byte[] body, HttpServletResponse response,
+                       FilterChain chain) throws ServletException, IOException {
+        if (node == null || router.isLocal(node)) {
+            chain.doFilter(body == null ? request : new ReadBodyRequest(request, body), response);
+            return;
+        }
+        try {
+            router.forward(node, request, body == null ? request.getInputStream().readAllBytes() : body, response);
+        } catch (IOException e) {
+            throw new ShardUnavailableException(e);
+        }
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            // Left for the controller to refuse
+            return objectMapper.missingNode();
+        }
+    }
+
+    private static Long productId(JsonNode node) {
+        JsonNode productId = node == null ? null : node.get("productId");
+        return productId != null && productId.canConvertToLong() ? productId.asLong() : null;
+    }
+
+    private static Long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Another node could not be reached or failed while answering
+     */
+    private static class ShardUnavailableException extends IOException {
+        ShardUnavailableException(IOException cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * A request whose body was read by the filter, replayed to the controller
+     */
+    private static class ReadBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        ReadBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so it is all available at once
+                 */
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+    }
+}
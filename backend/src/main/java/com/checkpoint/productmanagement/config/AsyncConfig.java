@@ -0,0 +1,93 @@
+package com.checkpoint.productmanagement.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Background executors.
+ * With {@code spring.threads.virtual.enabled=true} on Java 21 (the {@code virtual} profile) their threads are
+ * virtual; the pool sizes, queues and rejection stay the same, so import limits behave the same in both modes.
+ */
+@Configuration
+@EnableConfigurationProperties({CsvImportProperties.class, BulkProperties.class})
+public class AsyncConfig {
+
+    /**
+     * Runs the reader side of each CSV import job
+     */
+    @Bean
+    public ThreadPoolTaskExecutor csvImportJobExecutor(CsvImportProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getMaxConcurrentJobs());
+        executor.setMaxPoolSize(properties.getMaxConcurrentJobs());
+        executor.setQueueCapacity(100);
+        executor.setThreadFactory(threadFactory("csv-import-", false, environment));
+        return executor;
+    }
+
+    /**
+     * Validates and inserts parsed CSV chunks. Each running job keeps {@code workers} consumers busy until its
+     * input ends, so the pool has room for those of every job allowed to run at once.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor csvImportWorkerExecutor(CsvImportProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWorkers() * properties.getMaxConcurrentJobs());
+        executor.setMaxPoolSize(properties.getWorkers() * properties.getMaxConcurrentJobs());
+        executor.setThreadFactory(threadFactory("csv-worker-", false, environment));
+        return executor;
+    }
+
+    /**
+     * Binds and validates the items of bulk product writes
+     */
+    @Bean
+    public ThreadPoolTaskExecutor bulkValidationExecutor(BulkProperties properties, Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWorkers());
+        executor.setMaxPoolSize(properties.getWorkers());
+        executor.setThreadFactory(threadFactory("bulk-validation-", false, environment));
+        return executor;
+    }
+
+    /**
+     * Creates the writer thread of the operations journal
+     */
+    @Bean
+    public ThreadFactory journalThreadFactory(Environment environment) {
+        return threadFactory("operations-journal-", true, environment);
+    }
+
+    /**
+     * Creates the threads sending low-stock notifications, one per subscriber with events pending
+     */
+    @Bean
+    public ThreadFactory lowStockNotifierThreadFactory(Environment environment) {
+        return threadFactory("low-stock-notifier-", true, environment);
+    }
+
+    /**
+     * Creates the threads pumping change streams to clients
+     */
+    @Bean
+    public ThreadFactory changeStreamThreadFactory(Environment environment) {
+        return threadFactory("change-stream-", true, environment);
+    }
+
+    private static ThreadFactory threadFactory(String prefix, boolean daemon, Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+        factory.setDaemon(daemon);
+        return factory;
+    }
+}
@@ -0,0 +1,16 @@
+package com.checkpoint.productmanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning for the bulk product write endpoints
+ */
+@Data
+@ConfigurationProperties(prefix = "bulk")
+public class BulkProperties {
+    /** Items validated and written together; each batch gets one timestamp, one journal write and one notification */
+    private int batchSize = 1000;
+    /** Threads validating the items of a batch */
+    private int workers = Runtime.getRuntime().availableProcessors();
+}
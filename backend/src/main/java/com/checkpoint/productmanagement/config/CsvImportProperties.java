@@ -0,0 +1,26 @@
+package com.checkpoint.productmanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Tuning for the streaming CSV import pipeline
+ */
+@Data
+@ConfigurationProperties(prefix = "csv.import")
+public class CsvImportProperties {
+    /** Rows handed to a worker at a time */
+    private int chunkSize = 1000;
+    /** Parsed chunks waiting for a worker before the reader blocks */
+    private int queueCapacity = 16;
+    /** Validation and insert workers of each import job */
+    private int workers = Runtime.getRuntime().availableProcessors();
+    /** Import jobs allowed to run at the same time */
+    private int maxConcurrentJobs = 2;
+    /** Error messages kept per job, further errors are only counted */
+    private int maxErrors = 1000;
+    /** How long the reader waits for room in the queue before checking its workers are still there */
+    private long queueTimeoutMillis = 1000;
+    /** How long finished jobs stay available for polling */
+    private long jobRetentionMinutes = 60;
+}
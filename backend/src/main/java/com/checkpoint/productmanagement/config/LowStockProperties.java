@@ -0,0 +1,20 @@
+package com.checkpoint.productmanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Quantities below which a product counts as low stock, and how transitions are streamed
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.low-stock")
+public class LowStockProperties {
+    private int defaultThreshold = 5;
+    /** Overrides of the default threshold by category name */
+    private Map<String, Integer> categoryThresholds = new HashMap<>();
+    /** Transitions queued per stream subscriber; one falling further behind is disconnected */
+    private int subscriberQueueCapacity = 1000;
+}
@@ -0,0 +1,32 @@
+package com.checkpoint.productmanagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Server and schedulers of the reactive mode ({@code reactive} profile).
+ * Tomcat stays on the classpath for the servlet mode, so Netty is chosen explicitly.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ReactiveProperties.class)
+public class ReactiveConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Runs the parts of reactive requests that may block, off the event loops
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reactiveIoScheduler(ReactiveProperties properties) {
+        return Schedulers.newBoundedElastic(properties.getIoThreads(), properties.getIoQueueSize(), "reactive-io");
+    }
+}
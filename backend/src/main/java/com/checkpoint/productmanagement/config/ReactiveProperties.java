@@ -0,0 +1,16 @@
+package com.checkpoint.productmanagement.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reactive mode
+ */
+@Data
+@ConfigurationProperties(prefix = "reactive")
+public class ReactiveProperties {
+    /** Threads running the blocking parts of reactive requests (file writes, archive reads) */
+    private int ioThreads = 10 * Runtime.getRuntime().availableProcessors();
+    /** Tasks waiting for an io thread before new ones are refused */
+    private int ioQueueSize = 100_000;
+}
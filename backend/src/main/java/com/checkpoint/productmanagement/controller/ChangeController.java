@@ -0,0 +1,63 @@
+package com.checkpoint.productmanagement.controller;
+
+import com.checkpoint.productmanagement.changes.ChangeLog;
+import com.checkpoint.productmanagement.changes.ChangeStreams;
+import com.checkpoint.productmanagement.dto.ChangeOffsets;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ChangeController {
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
+    private final ChangeLog changeLog;
+    private final ChangeStreams changeStreams;
+
+
+    @GetMapping("/offsets")
+    public ResponseEntity<ChangeOffsets> getOffsets() {
+        return ResponseEntity.ok(new ChangeOffsets(changeLog.first(), changeLog.next()));
+    }
+
+
+    /**
+     * Stream changes from sequence {@code from}, or only new ones without it. Sent as Server-Sent Events when
+     * asked for {@code text/event-stream}, where {@code Last-Event-ID} resumes after the last event seen, and as
+     * NDJSON otherwise. A position that is no longer kept gets 410, the client then resyncs from the offsets.
+     */
+    @GetMapping
+    public ResponseEntity<ResponseBodyEmitter> streamChanges(@RequestParam(required = false) Long from,
+                                           @RequestHeader(value = LAST_EVENT_ID, required = false) Long lastEventId,
+                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        long position = from != null ? from : lastEventId != null ? lastEventId + 1 : changeLog.next();
+        if (position > changeLog.next()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (position < changeLog.first()) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        boolean sse = accept != null && MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> !type.isWildcardType() && type.isCompatibleWith(MediaType.TEXT_EVENT_STREAM));
+        try {
+            return ResponseEntity.ok()
+                    .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                    .cacheControl(CacheControl.noStore())
+                    .body(changeStreams.open(position, sse ? ChangeStreams.Format.SSE : ChangeStreams.Format.NDJSON));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
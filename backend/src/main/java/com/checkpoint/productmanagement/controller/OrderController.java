@@ -1,44 +1,122 @@
 package com.checkpoint.productmanagement.controller;
 
+import com.checkpoint.productmanagement.cache.IdempotencyCache;
+import com.checkpoint.productmanagement.dto.BatchOrderDto;
 import com.checkpoint.productmanagement.dto.OrderDto;
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
 import com.checkpoint.productmanagement.entity.Order;
 import com.checkpoint.productmanagement.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*")
 public class OrderController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
     
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
     
 
+    /**
+     * Place an order. With an Idempotency-Key header, a retry gets the order placed by the first request.
+     */
     @PostMapping
-    public ResponseEntity<Order> processOrder(@Valid @RequestBody OrderDto orderDto) {
+    public ResponseEntity<Order> processOrder(@Valid @RequestBody OrderDto orderDto,
+                                              @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key) {
+        return placeOnce("order", key, orderDto, () -> orderService.processOrder(orderDto));
+    }
+    
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<Order>> processBatchOrder(@Valid @RequestBody BatchOrderDto batchOrderDto,
+                                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key) {
+        return placeOnce("batch", key, batchOrderDto, () -> orderService.processBatchOrder(batchOrderDto));
+    }
 
-        
+    private <T> ResponseEntity<T> placeOnce(String scope, String key, Object request, Supplier<T> place) {
         try {
-            Order order = orderService.processOrder(orderDto);
-            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+            if (key == null) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(place.get());
+            }
+            IdempotencyCache.Outcome<T> outcome = idempotencyCache.execute(scope, key, request, place);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.isReplayed()))
+                    .body(outcome.getValue());
+        } catch (IdempotencyCache.KeyReusedException e) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
-    
 
+
+    /**
+     * The whole history as one JSON array, written while it is read so it is never held in memory
+     */
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<StreamingResponseBody> getAllOrders() {
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Order> orders = orderService.streamOrders();
+                 SequenceWriter writer = objectMapper.writer()
+                         .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                         .writeValuesAsArray(outputStream)) {
+                Iterator<Order> iterator = orders.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+
+    @GetMapping("/page")
+    public ResponseEntity<OrderPage> getOrderPage(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            OrderQuery query = new OrderQuery();
+            query.setProductId(productId);
+            query.setFrom(from);
+            query.setTo(to);
+            query.setDescending("desc".equalsIgnoreCase(direction));
+            query.setCursor(cursor);
+            query.setLimit(limit);
+            return ResponseEntity.ok(orderService.findOrders(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -1,43 +1,155 @@
 package com.checkpoint.productmanagement.controller;
 
+import com.checkpoint.productmanagement.admission.AdmissionSlot;
+import com.checkpoint.productmanagement.cache.CachedResponse;
+import com.checkpoint.productmanagement.cache.ProductResponseCache;
+import com.checkpoint.productmanagement.dto.BulkItemResult;
 import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.dto.ProductPage;
+import com.checkpoint.productmanagement.dto.ProductQuery;
 import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.search.ProductSearchIndex;
+import com.checkpoint.productmanagement.service.BulkProductService;
 import com.checkpoint.productmanagement.service.CsvImportService;
+import com.checkpoint.productmanagement.service.ImportJob;
+import com.checkpoint.productmanagement.service.LowStockNotifier;
+import com.checkpoint.productmanagement.service.ProductQueryService;
 import com.checkpoint.productmanagement.service.ProductService;
+import com.checkpoint.productmanagement.stock.StockConflictException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 @Slf4j
 @CrossOrigin(origins = "*") 
 public class ProductController {
     
+    private static final String NDJSON = "application/x-ndjson";
+
     private final ProductService productService;
     private final CsvImportService csvImportService;
+    private final ProductQueryService productQueryService;
+    private final LowStockNotifier lowStockNotifier;
+    private final ObjectMapper objectMapper;
+    private final ProductResponseCache responseCache;
+    private final ProductSearchIndex searchIndex;
+    private final BulkProductService bulkProductService;
     
    
 
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<byte[]> getAllProducts() {
+        return cached(responseCache.list("all", () ->
+                new ProductResponseCache.Listing(productService.getAllProducts(), product -> true, null)));
     }
     
 
+    @GetMapping("/page")
+    public ResponseEntity<byte[]> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean lowStock,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            ProductQuery query = buildQuery(category, minPrice, maxPrice, lowStock, sort, direction);
+            query.setCursor(cursor);
+            query.setLimit(limit);
+            return cached(responseCache.list("page:" + query, () -> {
+                ProductPage page = productQueryService.findProducts(query);
+                return new ProductResponseCache.Listing(page, productQueryService.window(query, page), query.getCategory());
+            }));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean lowStock) {
+        ProductQuery query = buildQuery(category, minPrice, maxPrice, lowStock, "id", "asc");
+        // One generator writes every line straight into the response buffer
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Product> products = productQueryService.streamProducts(query);
+                 JsonGenerator generator = objectMapper.createGenerator(new BufferedOutputStream(outputStream, 1 << 16))) {
+                generator.setRootValueSeparator(null);
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                Iterator<Product> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
+
+    /**
+     * Ranked search over names and categories; {@code name} is accepted as an alias of {@code q}
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        String query = q != null ? q : name;
+        if (query == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(searchIndex.search(query, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
-        Optional<Product> product = productService.getProductById(id);
-        return product.map(ResponseEntity::ok)
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id) {
+        Optional<CachedResponse> product = responseCache.product(id, () -> productService.getProductById(id));
+        return product.map(this::cached)
                     .orElse(ResponseEntity.notFound().build());
     }
      
@@ -49,15 +161,45 @@ public class ProductController {
     }
     
 
+    /**
+     * Replace a product. A quantity below the stock held by orders in progress gets 409.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<Product> updateProduct(@PathVariable Long id, 
                                               @Valid @RequestBody ProductDto productDto) {
-        Optional<Product> updatedProduct = productService.updateProduct(id, productDto);
-        return updatedProduct.map(ResponseEntity::ok)
-                           .orElse(ResponseEntity.notFound().build());
+        try {
+            Optional<Product> updatedProduct = productService.updateProduct(id, productDto);
+            return updatedProduct.map(ResponseEntity::ok)
+                               .orElse(ResponseEntity.notFound().build());
+        } catch (StockConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
     
 
+    /**
+     * Bulk writes take a JSON array or NDJSON and answer with one result per item in the same format
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<StreamingResponseBody> createProducts(HttpServletRequest request) {
+        return bulk(request, bulkProductService::createProducts);
+    }
+
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<StreamingResponseBody> updateProducts(HttpServletRequest request) {
+        return bulk(request, bulkProductService::updateProducts);
+    }
+
+
+    @DeleteMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    public ResponseEntity<StreamingResponseBody> deleteProducts(HttpServletRequest request) {
+        return bulk(request, bulkProductService::deleteProducts);
+    }
+
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteProduct(@PathVariable Long id) {
         boolean deleted = productService.deleteProduct(id);
@@ -67,9 +209,16 @@ public class ProductController {
     
 
     @GetMapping("/low-stock")
-    public ResponseEntity<List<Product>> getLowStockProducts() {
-        List<Product> lowStockProducts = productService.getLowStockProducts();
-        return ResponseEntity.ok(lowStockProducts);
+    public ResponseEntity<byte[]> getLowStockProducts() {
+        return cached(responseCache.list("low-stock", () ->
+                new ProductResponseCache.Listing(productService.getLowStockProducts(), Product::isLowStock, null)));
+    }
+    
+    
+
+    @GetMapping(value = "/low-stock/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockChanges() {
+        return lowStockNotifier.subscribe();
     }
     
     
@@ -92,9 +241,87 @@ public class ProductController {
     }
     
 
+    @PostMapping("/import/async")
+    public ResponseEntity<ImportJob> startCsvImport(@RequestParam("file") MultipartFile file, HttpServletRequest request) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            // The import keeps its admission slot until the job ends, not just until it is accepted
+            AdmissionSlot slot = AdmissionSlot.detach(request);
+            ImportJob job = csvImportService.startImport(file, slot::release);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+
+    @GetMapping("/import/jobs/{jobId}")
+    public ResponseEntity<ImportJob> getCsvImportJob(@PathVariable String jobId) {
+        return csvImportService.getImportJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+
     @GetMapping("/stats/operations")
     public ResponseEntity<Integer> getOperationCounter() {
         int counter = productService.getOperationCounter();
         return ResponseEntity.ok(counter);
     }
+
+    private interface BulkOperation {
+        void apply(MappingIterator<JsonNode> items, Consumer<BulkItemResult> results) throws IOException;
+    }
+
+    private ResponseEntity<StreamingResponseBody> bulk(HttpServletRequest request, BulkOperation operation) {
+        boolean ndjson = request.getContentType() != null && request.getContentType().startsWith(NDJSON);
+        StreamingResponseBody body = outputStream -> {
+            try (MappingIterator<JsonNode> items = objectMapper.readerFor(JsonNode.class).readValues(request.getInputStream());
+                 SequenceWriter writer = resultWriter(outputStream, ndjson)) {
+                operation.apply(items, result -> {
+                    try {
+                        writer.write(result);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.parseMediaType(NDJSON) : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private SequenceWriter resultWriter(OutputStream outputStream, boolean ndjson) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(outputStream, 1 << 16);
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return ndjson ? writer.withRootValueSeparator("\n").writeValues(out) : writer.writeValuesAsArray(out);
+    }
+
+    /**
+     * Serve a cached body with its ETag; Spring answers 304 when it matches If-None-Match
+     */
+    private ResponseEntity<byte[]> cached(CachedResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.getEtag())
+                .body(response.getBody());
+    }
+
+    private ProductQuery buildQuery(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Boolean lowStock, String sort, String direction) {
+        ProductQuery query = new ProductQuery();
+        query.setCategory(category);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setLowStock(lowStock);
+        query.setSort(ProductQuery.SortField.valueOf(sort.toUpperCase(Locale.ROOT)));
+        query.setDescending("desc".equalsIgnoreCase(direction));
+        return query;
+    }
 } 
\ No newline at end of file
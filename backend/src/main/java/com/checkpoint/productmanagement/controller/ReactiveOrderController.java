@@ -0,0 +1,103 @@
+package com.checkpoint.productmanagement.controller;
+
+import com.checkpoint.productmanagement.cache.IdempotencyCache;
+import com.checkpoint.productmanagement.dto.BatchOrderDto;
+import com.checkpoint.productmanagement.dto.OrderDto;
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.service.ReactiveOrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The order API of the reactive mode, with the same paths, statuses and Idempotency-Key handling as
+ * {@link OrderController}
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReactiveOrderController {
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private final ReactiveOrderService reactiveOrderService;
+
+
+    @PostMapping
+    public Mono<ResponseEntity<Order>> processOrder(@Valid @RequestBody OrderDto orderDto,
+                                                    @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key) {
+        return created(reactiveOrderService.processOrder(orderDto, key), key);
+    }
+
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<Order>>> processBatchOrder(@Valid @RequestBody BatchOrderDto batchOrderDto,
+                                                               @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String key) {
+        return created(reactiveOrderService.processBatchOrder(batchOrderDto, key), key);
+    }
+
+
+    /**
+     * The whole history, streamed as the client reads it
+     */
+    @GetMapping
+    public Flux<Order> getAllOrders() {
+        return reactiveOrderService.streamOrders();
+    }
+
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<OrderPage>> getOrderPage(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        OrderQuery query = new OrderQuery();
+        query.setProductId(productId);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setDescending("desc".equalsIgnoreCase(direction));
+        query.setCursor(cursor);
+        query.setLimit(limit);
+        return reactiveOrderService.findOrders(query)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable Long id) {
+        return reactiveOrderService.getOrderById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private <T> Mono<ResponseEntity<T>> created(Mono<IdempotencyCache.Outcome<T>> outcome, String key) {
+        return outcome
+                .map(placed -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+                    if (key != null) {
+                        response.header(IDEMPOTENT_REPLAYED, String.valueOf(placed.isReplayed()));
+                    }
+                    return response.body(placed.getValue());
+                })
+                .onErrorResume(IdempotencyCache.KeyReusedException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+}
@@ -0,0 +1,164 @@
+package com.checkpoint.productmanagement.controller;
+
+import com.checkpoint.productmanagement.cache.CachedResponse;
+import com.checkpoint.productmanagement.cache.ProductResponseCache;
+import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.dto.ProductPage;
+import com.checkpoint.productmanagement.dto.ProductQuery;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.service.ProductQueryService;
+import com.checkpoint.productmanagement.service.ProductService;
+import com.checkpoint.productmanagement.service.ReactiveProductService;
+import com.checkpoint.productmanagement.stock.StockConflictException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The product API of the reactive mode. Lists are streamed as the client reads them, as a JSON array
+ * or as NDJSON when asked for with {@code Accept: application/x-ndjson}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class ReactiveProductController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ReactiveProductService reactiveProductService;
+    private final ProductService productService;
+    private final ProductQueryService productQueryService;
+    private final ProductResponseCache responseCache;
+
+
+    @GetMapping
+    public Flux<Product> getAllProducts() {
+        return reactiveProductService.streamProducts(new ProductQuery());
+    }
+
+
+    @GetMapping("/page")
+    public Mono<ResponseEntity<byte[]>> getProductPage(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean lowStock,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return Mono.fromCallable(() -> {
+                    ProductQuery query = buildQuery(category, minPrice, maxPrice, lowStock, sort, direction);
+                    query.setCursor(cursor);
+                    query.setLimit(limit);
+                    return cached(responseCache.list("page:" + query, () -> {
+                        ProductPage page = productQueryService.findProducts(query);
+                        return new ProductResponseCache.Listing(page, productQueryService.window(query, page), query.getCategory());
+                    }));
+                })
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+
+    @GetMapping(value = "/export", produces = NDJSON)
+    public Flux<Product> exportProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean lowStock) {
+        return reactiveProductService.streamProducts(buildQuery(category, minPrice, maxPrice, lowStock, "id", "asc"));
+    }
+
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<Product>>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String name,
+            @RequestParam(defaultValue = "20") int limit) {
+        String query = q != null ? q : name;
+        if (query == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return reactiveProductService.search(query, limit)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<byte[]>> getProductById(@PathVariable Long id) {
+        return Mono.fromCallable(() -> responseCache.product(id, () -> productService.getProductById(id))
+                .map(this::cached)
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+
+    @PostMapping
+    public Mono<ResponseEntity<Product>> createProduct(@Valid @RequestBody ProductDto productDto) {
+        return reactiveProductService.createProduct(productDto)
+                .map(product -> ResponseEntity.status(HttpStatus.CREATED).body(product));
+    }
+
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Product>> updateProduct(@PathVariable Long id,
+                                                       @Valid @RequestBody ProductDto productDto) {
+        return reactiveProductService.updateProduct(id, productDto)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(StockConflictException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build()))
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().build()));
+    }
+
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable Long id) {
+        return reactiveProductService.deleteProduct(id)
+                .map(deleted -> deleted ? ResponseEntity.noContent().<Void>build()
+                                        : ResponseEntity.notFound().<Void>build());
+    }
+
+
+    @GetMapping("/low-stock")
+    public Flux<Product> getLowStockProducts() {
+        return reactiveProductService.getLowStockProducts();
+    }
+
+
+    @GetMapping("/stats/operations")
+    public Mono<Integer> getOperationCounter() {
+        return Mono.fromCallable(productService::getOperationCounter);
+    }
+
+    private ResponseEntity<byte[]> cached(CachedResponse response) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.getEtag())
+                .body(response.getBody());
+    }
+
+    private ProductQuery buildQuery(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                    Boolean lowStock, String sort, String direction) {
+        ProductQuery query = new ProductQuery();
+        query.setCategory(category);
+        query.setMinPrice(minPrice);
+        query.setMaxPrice(maxPrice);
+        query.setLowStock(lowStock);
+        query.setSort(ProductQuery.SortField.valueOf(sort.toUpperCase(Locale.ROOT)));
+        query.setDescending("desc".equalsIgnoreCase(direction));
+        return query;
+    }
+}
@@ -0,0 +1,77 @@
+package com.checkpoint.productmanagement.controller;
+
+import com.checkpoint.productmanagement.dto.InventoryStats;
+import com.checkpoint.productmanagement.dto.SalesStats;
+import com.checkpoint.productmanagement.stats.InventoryAggregator;
+import com.checkpoint.productmanagement.stats.SalesAggregator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class StatsController {
+
+    private final SalesAggregator salesAggregator;
+    private final InventoryAggregator inventoryAggregator;
+
+
+    @GetMapping("/sales")
+    public ResponseEntity<SalesStats> getTotalSales(@RequestParam(defaultValue = "60") int minutes) {
+        try {
+            return ResponseEntity.ok(salesAggregator.getTotalSales(minutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    @GetMapping("/sales/products/{id}")
+    public ResponseEntity<SalesStats> getProductSales(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "60") int minutes) {
+        try {
+            return ResponseEntity.ok(salesAggregator.getProductSales(id, minutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    @GetMapping("/sales/categories")
+    public ResponseEntity<List<SalesStats>> getCategorySales(@RequestParam(defaultValue = "60") int minutes) {
+        try {
+            return ResponseEntity.ok(salesAggregator.getCategorySales(minutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    @GetMapping("/sales/categories/{category}")
+    public ResponseEntity<SalesStats> getCategorySales(@PathVariable String category,
+                                                       @RequestParam(defaultValue = "60") int minutes) {
+        try {
+            return ResponseEntity.ok(salesAggregator.getCategorySales(category, minutes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    @GetMapping("/inventory/categories")
+    public ResponseEntity<List<InventoryStats>> getInventoryByCategory() {
+        return ResponseEntity.ok(inventoryAggregator.getCategoryStats());
+    }
+
+
+    @GetMapping("/inventory/categories/{category}")
+    public ResponseEntity<InventoryStats> getCategoryInventory(@PathVariable String category) {
+        return inventoryAggregator.getCategoryStats(category)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,15 @@
+package com.checkpoint.productmanagement.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchOrderDto {
+    @NotEmpty(message = "At least one order line is required")
+    @Size(max = 500, message = "A batch cannot exceed 500 lines")
+    private List<@Valid OrderDto> items;
+}
@@ -0,0 +1,22 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of one item of a bulk write, by its position in the request
+ */
+@Data
+@AllArgsConstructor
+public class BulkItemResult {
+
+    public enum Status { CREATED, UPDATED, DELETED, NOT_FOUND, INVALID }
+
+    private int index;
+    private Long id;
+    private Status status;
+    /** Validation errors of an invalid item */
+    private List<String> errors;
+}
@@ -0,0 +1,14 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Replay window of the change stream: the oldest sequence still kept and the sequence of the next change
+ */
+@Data
+@AllArgsConstructor
+public class ChangeOffsets {
+    private long first;
+    private long next;
+}
@@ -0,0 +1,18 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Products, units in stock and stock value (price times quantity) of a category
+ */
+@Data
+@AllArgsConstructor
+public class InventoryStats {
+    private String category;
+    private long products;
+    private long units;
+    private BigDecimal stockValue;
+}
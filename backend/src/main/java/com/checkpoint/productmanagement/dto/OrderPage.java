@@ -0,0 +1,15 @@
+package com.checkpoint.productmanagement.dto;
+
+import com.checkpoint.productmanagement.entity.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class OrderPage {
+    private List<Order> items;
+    /** Cursor of the next page, null on the last page */
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters and position of an order history request. Orders are listed by order date, then id.
+ */
+@Data
+public class OrderQuery {
+    private Long productId;
+    /** Inclusive lower bound of the order date */
+    private LocalDateTime from;
+    /** Exclusive upper bound of the order date */
+    private LocalDateTime to;
+    private boolean descending;
+    /** Opaque position returned as nextCursor by the previous page */
+    private String cursor;
+    private int limit = 50;
+}
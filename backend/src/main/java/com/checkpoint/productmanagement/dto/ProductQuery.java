@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters, ordering and position of a product listing request
+ */
+@Data
+public class ProductQuery {
+
+    public enum SortField { ID, NAME, PRICE }
+
+    private String category;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private Boolean lowStock;
+    private SortField sort = SortField.ID;
+    private boolean descending;
+    /** Opaque position returned as nextCursor by the previous page */
+    private String cursor;
+    private int limit = 50;
+}
@@ -0,0 +1,17 @@
+package com.checkpoint.productmanagement.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Sales of a product, a category or the whole shop over the last {@code minutes} minutes
+ */
+@Data
+@AllArgsConstructor
+public class SalesStats {
+    private Long productId;
+    private String category;
+    private int minutes;
+    private long unitsSold;
+    private long orders;
+}
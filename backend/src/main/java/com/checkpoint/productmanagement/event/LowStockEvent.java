@@ -0,0 +1,22 @@
+package com.checkpoint.productmanagement.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product entering or leaving the low-stock set
+ */
+@Value
+public class LowStockEvent {
+
+    public enum Transition { ENTER, EXIT }
+
+    Transition transition;
+    Long productId;
+    String name;
+    String category;
+    Integer quantity;
+    int threshold;
+    LocalDateTime timestamp;
+}
@@ -0,0 +1,12 @@
+package com.checkpoint.productmanagement.event;
+
+import com.checkpoint.productmanagement.entity.Order;
+
+/**
+ * Notified by OrderService after every order is stored, including orders restored on startup,
+ * on the placing thread. Implementations must be fast and must not place orders.
+ */
+public interface OrderListener {
+
+    void onOrderPlaced(Order order);
+}
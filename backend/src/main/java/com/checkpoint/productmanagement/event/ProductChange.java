@@ -0,0 +1,33 @@
+package com.checkpoint.productmanagement.event;
+
+import com.checkpoint.productmanagement.entity.Product;
+import lombok.Value;
+
+/**
+ * A product write as seen by listeners. {@code before} is null for creations and {@code after} for deletions.
+ */
+@Value
+public class ProductChange {
+
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    Type type;
+    Product before;
+    Product after;
+
+    public static ProductChange created(Product product) {
+        return new ProductChange(Type.CREATED, null, product);
+    }
+
+    public static ProductChange updated(Product before, Product after) {
+        return new ProductChange(Type.UPDATED, before, after);
+    }
+
+    public static ProductChange deleted(Product product) {
+        return new ProductChange(Type.DELETED, product, null);
+    }
+
+    public long getProductId() {
+        return after != null ? after.getId() : before.getId();
+    }
+}
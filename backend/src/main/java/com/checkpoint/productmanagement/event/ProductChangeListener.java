@@ -0,0 +1,19 @@
+package com.checkpoint.productmanagement.event;
+
+import java.util.List;
+
+/**
+ * Notified by ProductService after every product write, including writes restored on startup, on the writing thread.
+ * Implementations must be fast and must not call back into ProductService writes.
+ */
+public interface ProductChangeListener {
+
+    void onProductChange(ProductChange change);
+
+    /**
+     * Changes of one batch write, in order. By default each one is passed to {@link #onProductChange}.
+     */
+    default void onProductChanges(List<ProductChange> changes) {
+        changes.forEach(this::onProductChange);
+    }
+}
@@ -0,0 +1,15 @@
+package com.checkpoint.productmanagement.journal;
+
+import lombok.Value;
+
+/**
+ * One operation waiting to be written. Kept unformatted so request threads never build the log line.
+ */
+@Value
+public class JournalEntry {
+    long timestamp;
+    String operation;
+    Long id;
+    String name;
+    Integer quantity;
+}
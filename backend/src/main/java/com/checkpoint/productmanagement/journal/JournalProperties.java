@@ -0,0 +1,28 @@
+package com.checkpoint.productmanagement.journal;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the operations journal
+ */
+@Data
+@ConfigurationProperties(prefix = "journal")
+public class JournalProperties {
+
+    public enum FsyncPolicy {
+        /** Leave flushing to the operating system */
+        NONE,
+        /** Force every group commit to disk */
+        EVERY_BATCH
+    }
+
+    private String path = "operations.log";
+    /** Slots in the in-memory ring buffer, rounded up to a power of two */
+    private int bufferSize = 65536;
+    /** Entries that trigger a group commit */
+    private int batchSize = 256;
+    /** Maximum time an entry waits before it is written */
+    private long flushIntervalMs = 200;
+    private FsyncPolicy fsync = FsyncPolicy.NONE;
+}
@@ -0,0 +1,93 @@
+package com.checkpoint.productmanagement.journal;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ * Producers claim slots with a CAS on the producer index and then publish the element into the slot;
+ * the consumer treats an empty slot as "not published yet" and never skips it.
+ */
+public class MpscRingBuffer<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    public MpscRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Append an element, returns false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        buffer.lazySet((int) index & mask, element);
+        return true;
+    }
+
+    /**
+     * Append all elements into consecutive slots, or none of them if they do not fit
+     */
+    public boolean offerAll(List<E> elements) {
+        int count = elements.size();
+        if (count > capacity) {
+            return false;
+        }
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index + count - consumerIndex.get() > capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + count));
+        for (int i = 0; i < count; i++) {
+            buffer.lazySet((int) (index + i) & mask, elements.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Hand up to {@code limit} published elements to the consumer. Must only be called by the consumer thread.
+     */
+    public int drain(Consumer<E> consumer, int limit) {
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) index & mask;
+            E element = buffer.get(slot);
+            if (element == null) {
+                break;
+            }
+            buffer.lazySet(slot, null);
+            index++;
+            consumerIndex.lazySet(index);
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
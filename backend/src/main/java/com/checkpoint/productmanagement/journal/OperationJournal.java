@@ -0,0 +1,217 @@
+package com.checkpoint.productmanagement.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only operations log with group commit.
+ * Request threads only publish a {@link JournalEntry} into a lock-free ring buffer. A single writer
+ * thread formats the entries, keeps one {@link FileChannel} open for the lifetime of the journal and
+ * writes a group whenever {@code batchSize} entries are waiting or {@code flushIntervalMs} has passed.
+ */
+@Component
+@EnableConfigurationProperties(JournalProperties.class)
+@Slf4j
+public class OperationJournal {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private final JournalProperties properties;
+    private final MpscRingBuffer<JournalEntry> ringBuffer;
+    private final StringBuilder line = new StringBuilder(256);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(256 * 1024);
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final ThreadFactory threadFactory;
+    private FileChannel channel;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile int unflushed;
+    private long cachedSecond = Long.MIN_VALUE;
+    private String cachedTimestamp;
+
+    public OperationJournal(JournalProperties properties, MeterRegistry registry, ThreadFactory journalThreadFactory) {
+        this.properties = properties;
+        this.threadFactory = journalThreadFactory;
+        this.ringBuffer = new MpscRingBuffer<>(properties.getBufferSize());
+        this.flushTimer = Timer.builder("journal.flush")
+                .description("Time to write and sync one group of entries")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+        this.batchSizes = DistributionSummary.builder("journal.batch.size")
+                .description("Entries written per group commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        Gauge.builder("journal.pending", this, OperationJournal::getPendingCount)
+                .description("Entries accepted but not yet written")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        channel = FileChannel.open(Path.of(properties.getPath()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        running = true;
+        writer = threadFactory.newThread(this::runWriter);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        channel.close();
+    }
+
+    public void append(JournalEntry entry) {
+        while (!ringBuffer.offer(entry)) {
+            waitForSpace();
+        }
+        wakeWriterIfBatchReady();
+    }
+
+    /**
+     * Append entries so they end up next to each other in the same group
+     */
+    public void appendAll(List<JournalEntry> entries) {
+        if (entries.size() > ringBuffer.capacity()) {
+            entries.forEach(this::append);
+            return;
+        }
+        while (!ringBuffer.offerAll(entries)) {
+            waitForSpace();
+        }
+        wakeWriterIfBatchReady();
+    }
+
+    /**
+     * Entries accepted but not yet written to the file
+     */
+    public int getPendingCount() {
+        return ringBuffer.size() + unflushed;
+    }
+
+    private void waitForSpace() {
+        LockSupport.unpark(writer);
+        Thread.onSpinWait();
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+    }
+
+    private void wakeWriterIfBatchReady() {
+        if (ringBuffer.size() >= properties.getBatchSize()) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void runWriter() {
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+        long lastFlush = System.nanoTime();
+        while (running || ringBuffer.size() > 0) {
+            int drained = ringBuffer.drain(this::encode, properties.getBatchSize() - unflushed);
+            unflushed += drained;
+
+            long now = System.nanoTime();
+            boolean batchFull = unflushed >= properties.getBatchSize();
+            boolean intervalElapsed = now - lastFlush >= flushIntervalNanos;
+            if (unflushed > 0 && (batchFull || intervalElapsed || !running)) {
+                commitGroup();
+                lastFlush = now;
+            } else if (drained == 0) {
+                if (unflushed == 0) {
+                    lastFlush = now;
+                }
+                LockSupport.parkNanos(flushIntervalNanos - Math.min(flushIntervalNanos, now - lastFlush) + 1);
+            }
+        }
+        if (unflushed > 0) {
+            commitGroup();
+        }
+    }
+
+    private void encode(JournalEntry entry) {
+        line.setLength(0);
+        line.append('[').append(formatTimestamp(entry.getTimestamp())).append("] ")
+                .append(entry.getOperation())
+                .append(": ID = ").append(entry.getId())
+                .append(", Name = ").append(entry.getName())
+                .append(", Quantity = ").append(entry.getQuantity())
+                .append('\n');
+        put(CharBuffer.wrap(line));
+    }
+
+    private void commitGroup() {
+        long start = System.nanoTime();
+        // Groups are separated by an empty line, as the file has always been written
+        put(CharBuffer.wrap("\n"));
+        flushBuffer();
+        if (properties.getFsync() == JournalProperties.FsyncPolicy.EVERY_BATCH) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                log.error("Error syncing operations journal", e);
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(unflushed);
+        unflushed = 0;
+    }
+
+    private void put(CharBuffer chars) {
+        while (true) {
+            CoderResult result = encoder.encode(chars, writeBuffer, true);
+            if (!result.isOverflow()) {
+                break;
+            }
+            flushBuffer();
+        }
+        encoder.reset();
+    }
+
+    private void flushBuffer() {
+        writeBuffer.flip();
+        try {
+            while (writeBuffer.hasRemaining()) {
+                channel.write(writeBuffer);
+            }
+        } catch (IOException e) {
+            log.error("Error writing to operations journal", e);
+        } finally {
+            writeBuffer.clear();
+        }
+    }
+
+    private String formatTimestamp(long timestamp) {
+        long second = timestamp / 1000;
+        if (second != cachedSecond) {
+            cachedSecond = second;
+            cachedTimestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(second));
+        }
+        return cachedTimestamp;
+    }
+}
@@ -0,0 +1,26 @@
+package com.checkpoint.productmanagement.json;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.service.CsvImportService;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hand-written serializers of the entities every response is made of.
+ * <p>
+ * Spring Boot installs this module in the application {@code ObjectMapper}, so MVC and WebFlux responses, the
+ * response cache, the NDJSON and order history streams and the shard merge all use it. The serializers write
+ * straight to the generator without reflection, with pre-encoded field names and per-thread timestamp buffers,
+ * and produce the same bytes as the bean serializers for the configured inclusion and date settings.
+ */
+@Component
+public class EntityJsonModule extends SimpleModule {
+
+    public EntityJsonModule() {
+        super("EntityJsonModule");
+        addSerializer(Product.class, new ProductJsonSerializer());
+        addSerializer(Order.class, new OrderJsonSerializer());
+        addSerializer(CsvImportService.ImportResult.class, new ImportResultJsonSerializer());
+    }
+}
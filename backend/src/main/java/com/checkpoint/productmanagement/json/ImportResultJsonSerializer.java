@@ -0,0 +1,49 @@
+package com.checkpoint.productmanagement.json;
+
+import com.checkpoint.productmanagement.service.CsvImportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link CsvImportService.ImportResult}, whose error list can hold thousands of messages
+ */
+class ImportResultJsonSerializer extends StdSerializer<CsvImportService.ImportResult> {
+    private static final SerializedString SUCCESS_COUNT = new SerializedString("successCount");
+    private static final SerializedString ERROR_COUNT = new SerializedString("errorCount");
+    private static final SerializedString ERRORS = new SerializedString("errors");
+
+    ImportResultJsonSerializer() {
+        super(CsvImportService.ImportResult.class);
+    }
+
+    @Override
+    public void serialize(CsvImportService.ImportResult result, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(result);
+        gen.writeFieldName(SUCCESS_COUNT);
+        gen.writeNumber(result.getSuccessCount());
+        gen.writeFieldName(ERROR_COUNT);
+        gen.writeNumber(result.getErrorCount());
+        List<String> errors = result.getErrors();
+        if (errors == null) {
+            JsonFields.string(gen, provider, ERRORS, null);
+        } else {
+            gen.writeFieldName(ERRORS);
+            gen.writeStartArray(errors, errors.size());
+            for (String error : errors) {
+                if (error == null) {
+                    gen.writeNull();
+                } else {
+                    gen.writeString(error);
+                }
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+}
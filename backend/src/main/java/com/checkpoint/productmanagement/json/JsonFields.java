@@ -0,0 +1,85 @@
+package com.checkpoint.productmanagement.json;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Field writers shared by the entity serializers. A null value is written only when the mapper includes
+ * nulls ({@code spring.jackson.default-property-inclusion}), as the bean serializer would.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    static void number(JsonGenerator gen, SerializerProvider provider, SerializableString name, Long value)
+            throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeNumber(value);
+        } else {
+            writeNull(gen, provider, name);
+        }
+    }
+
+    static void number(JsonGenerator gen, SerializerProvider provider, SerializableString name, Integer value)
+            throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeNumber(value);
+        } else {
+            writeNull(gen, provider, name);
+        }
+    }
+
+    static void number(JsonGenerator gen, SerializerProvider provider, SerializableString name, BigDecimal value)
+            throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            // BigDecimal caches its text, so a stored price is only formatted once
+            gen.writeNumber(value);
+        } else {
+            writeNull(gen, provider, name);
+        }
+    }
+
+    static void string(JsonGenerator gen, SerializerProvider provider, SerializableString name, String value)
+            throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        } else {
+            writeNull(gen, provider, name);
+        }
+    }
+
+    static void dateTime(JsonGenerator gen, SerializerProvider provider, SerializableString name, LocalDateTime value)
+            throws IOException {
+        if (value == null) {
+            writeNull(gen, provider, name);
+            return;
+        }
+        gen.writeFieldName(name);
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            provider.defaultSerializeValue(value, gen);
+        } else {
+            JsonTimestamps.write(value, gen);
+        }
+    }
+
+    private static void writeNull(JsonGenerator gen, SerializerProvider provider, SerializableString name)
+            throws IOException {
+        JsonInclude.Include inclusion = provider.getConfig().getDefaultPropertyInclusion().getValueInclusion();
+        if (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS) {
+            gen.writeFieldName(name);
+            gen.writeNull();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.checkpoint.productmanagement.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link LocalDateTime} as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} text, the way Jackson does,
+ * from a per-thread character buffer. The {@code yyyy-MM-ddTHH:mm:ss} part is only re-encoded when the second
+ * changes, which it rarely does between the timestamps of one product or a run of orders.
+ */
+final class JsonTimestamps {
+    private static final ThreadLocal<JsonTimestamps> BUFFERS = ThreadLocal.withInitial(JsonTimestamps::new);
+    private static final int SECONDS_LENGTH = 19;
+
+    // yyyy-MM-ddTHH:mm:ss.nnnnnnnnn
+    private final char[] chars = new char[SECONDS_LENGTH + 10];
+    private long cachedSecond = Long.MIN_VALUE;
+
+    private JsonTimestamps() {
+        chars[4] = '-';
+        chars[7] = '-';
+        chars[10] = 'T';
+        chars[13] = ':';
+        chars[16] = ':';
+        chars[SECONDS_LENGTH] = '.';
+    }
+
+    static void write(LocalDateTime value, JsonGenerator gen) throws IOException {
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            // Signed or five-digit years, never seen in practice
+            gen.writeString(value.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            return;
+        }
+        BUFFERS.get().encode(value, gen);
+    }
+
+    private void encode(LocalDateTime value, JsonGenerator gen) throws IOException {
+        long second = value.toEpochSecond(ZoneOffset.UTC);
+        if (second != cachedSecond) {
+            digits(value.getYear(), 0, 4);
+            digits(value.getMonthValue(), 5, 2);
+            digits(value.getDayOfMonth(), 8, 2);
+            digits(value.getHour(), 11, 2);
+            digits(value.getMinute(), 14, 2);
+            digits(value.getSecond(), 17, 2);
+            cachedSecond = second;
+        }
+        int nano = value.getNano();
+        if (nano == 0) {
+            gen.writeString(chars, 0, SECONDS_LENGTH);
+            return;
+        }
+        // The fraction drops its trailing zeros
+        int length = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            length--;
+        }
+        digits(nano, SECONDS_LENGTH + 1, length);
+        gen.writeString(chars, 0, SECONDS_LENGTH + 1 + length);
+    }
+
+    private void digits(int value, int offset, int length) {
+        for (int i = offset + length - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.checkpoint.productmanagement.json;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes an {@link Order} field by field with pre-encoded names, in the order and format of the
+ * reflective bean serializer it replaces
+ */
+class OrderJsonSerializer extends StdSerializer<Order> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializedString PRODUCT_NAME = new SerializedString("productName");
+    private static final SerializedString QUANTITY_ORDERED = new SerializedString("quantityOrdered");
+    private static final SerializedString ORDER_DATE = new SerializedString("orderDate");
+
+    OrderJsonSerializer() {
+        super(Order.class);
+    }
+
+    @Override
+    public void serialize(Order order, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(order);
+        JsonFields.number(gen, provider, ID, order.getId());
+        JsonFields.number(gen, provider, PRODUCT_ID, order.getProductId());
+        JsonFields.string(gen, provider, PRODUCT_NAME, order.getProductName());
+        JsonFields.number(gen, provider, QUANTITY_ORDERED, order.getQuantityOrdered());
+        JsonFields.dateTime(gen, provider, ORDER_DATE, order.getOrderDate());
+        gen.writeEndObject();
+    }
+}
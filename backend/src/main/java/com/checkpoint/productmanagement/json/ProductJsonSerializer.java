@@ -0,0 +1,43 @@
+package com.checkpoint.productmanagement.json;
+
+import com.checkpoint.productmanagement.entity.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link Product} field by field with pre-encoded names, in the order and format of the
+ * reflective bean serializer it replaces
+ */
+class ProductJsonSerializer extends StdSerializer<Product> {
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString PRICE = new SerializedString("price");
+    private static final SerializedString QUANTITY = new SerializedString("quantity");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString LOW_STOCK = new SerializedString("lowStock");
+
+    ProductJsonSerializer() {
+        super(Product.class);
+    }
+
+    @Override
+    public void serialize(Product product, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(product);
+        JsonFields.number(gen, provider, ID, product.getId());
+        JsonFields.string(gen, provider, NAME, product.getName());
+        JsonFields.string(gen, provider, CATEGORY, product.getCategory());
+        JsonFields.number(gen, provider, PRICE, product.getPrice());
+        JsonFields.number(gen, provider, QUANTITY, product.getQuantity());
+        JsonFields.dateTime(gen, provider, CREATED_AT, product.getCreatedAt());
+        JsonFields.dateTime(gen, provider, UPDATED_AT, product.getUpdatedAt());
+        gen.writeFieldName(LOW_STOCK);
+        gen.writeBoolean(product.isLowStock());
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,115 @@
+package com.checkpoint.productmanagement.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms and counters of the service hot paths.
+ * Every meter is registered up front and looked up by array index, so recording is a plain
+ * histogram update with no tag or meter lookup and no allocation on the request thread.
+ */
+@Component
+public class InventoryMetrics {
+    private static final double[] PERCENTILES = {0.5, 0.99, 0.999};
+
+    public enum Operation {
+        CREATE_PRODUCT("ProductService", "createProduct"),
+        GET_PRODUCT("ProductService", "getProductById"),
+        UPDATE_PRODUCT("ProductService", "updateProduct"),
+        DELETE_PRODUCT("ProductService", "deleteProduct"),
+        CREATE_PRODUCTS("ProductService", "createProducts"),
+        UPDATE_PRODUCTS("ProductService", "updateProducts"),
+        DELETE_PRODUCTS("ProductService", "deleteProducts"),
+        LIST_PRODUCTS("ProductService", "getAllProducts"),
+        LOW_STOCK_PRODUCTS("ProductService", "getLowStockProducts"),
+        PROCESS_ORDER("OrderService", "processOrder"),
+        PROCESS_BATCH_ORDER("OrderService", "processBatchOrder"),
+        SEARCH_PRODUCTS("ProductSearchIndex", "search");
+
+        private final String service;
+        private final String method;
+
+        Operation(String service, String method) {
+            this.service = service;
+            this.method = method;
+        }
+    }
+
+    public enum OrderRejection { INSUFFICIENT_STOCK, PRODUCT_NOT_FOUND }
+
+    private final Timer[] operationTimers = new Timer[Operation.values().length];
+    private final Counter[] rejectionCounters = new Counter[OrderRejection.values().length];
+    private final Counter ordersPlaced;
+    private final Counter orderLinesPlaced;
+    private final Counter csvRowsImported;
+    private final DistributionSummary csvImportRowsPerSecond;
+    private final Counter lowStockSubscribersDropped;
+
+    public InventoryMetrics(MeterRegistry registry) {
+        for (Operation operation : Operation.values()) {
+            operationTimers[operation.ordinal()] = Timer.builder("inventory.service")
+                    .description("Latency of service methods")
+                    .tag("service", operation.service)
+                    .tag("method", operation.method)
+                    .publishPercentiles(PERCENTILES)
+                    .register(registry);
+        }
+        for (OrderRejection rejection : OrderRejection.values()) {
+            rejectionCounters[rejection.ordinal()] = Counter.builder("inventory.orders.rejected")
+                    .description("Orders refused before any stock was taken")
+                    .tag("reason", rejection.name().toLowerCase())
+                    .register(registry);
+        }
+        ordersPlaced = Counter.builder("inventory.orders.placed")
+                .description("Orders and batch orders completed")
+                .register(registry);
+        orderLinesPlaced = Counter.builder("inventory.orders.lines")
+                .description("Order lines completed")
+                .register(registry);
+        csvRowsImported = Counter.builder("inventory.csv.rows.imported")
+                .description("CSV rows turned into products")
+                .register(registry);
+        csvImportRowsPerSecond = DistributionSummary.builder("inventory.csv.import.throughput")
+                .description("Rows per second of finished CSV imports")
+                .baseUnit("rows_per_second")
+                .register(registry);
+        lowStockSubscribersDropped = Counter.builder("inventory.lowstock.subscribers.dropped")
+                .description("Low-stock stream subscribers disconnected for falling behind")
+                .register(registry);
+    }
+
+    /**
+     * Record the time since {@code startNanos}, a value taken from {@link System#nanoTime()}
+     */
+    public void record(Operation operation, long startNanos) {
+        operationTimers[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void orderPlaced(int lines) {
+        ordersPlaced.increment();
+        orderLinesPlaced.increment(lines);
+    }
+
+    public void orderRejected(OrderRejection rejection) {
+        rejectionCounters[rejection.ordinal()].increment();
+    }
+
+    public void csvRowsImported(int rows) {
+        csvRowsImported.increment(rows);
+    }
+
+    public void lowStockSubscriberDropped() {
+        lowStockSubscribersDropped.increment();
+    }
+
+    public void csvImportFinished(long rows, long elapsedNanos) {
+        if (elapsedNanos > 0) {
+            csvImportRowsPerSecond.record(rows * 1e9 / elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.checkpoint.productmanagement.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the write-ahead log and snapshots
+ */
+@Data
+@ConfigurationProperties(prefix = "persistence")
+public class PersistenceProperties {
+    private boolean enabled = true;
+    /** Directory holding WAL segments and snapshots */
+    private String directory = "data";
+    /** Force every WAL record to disk before the write returns */
+    private boolean fsync = false;
+    private long snapshotIntervalMs = 300000;
+}
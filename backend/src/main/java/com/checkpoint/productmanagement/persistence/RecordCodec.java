@@ -0,0 +1,93 @@
+package com.checkpoint.productmanagement.persistence;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary layout of products and orders shared by WAL records and snapshots
+ */
+final class RecordCodec {
+
+    private RecordCodec() {
+    }
+
+    static void writeProduct(DataOutput out, Product product) throws IOException {
+        out.writeLong(product.getId());
+        out.writeUTF(product.getName());
+        out.writeUTF(product.getCategory());
+        writeDecimal(out, product.getPrice());
+        out.writeInt(product.getQuantity());
+        out.writeBoolean(product.isLowStock());
+        writeDateTime(out, product.getCreatedAt());
+        writeDateTime(out, product.getUpdatedAt());
+    }
+
+    static Product readProduct(DataInput in) throws IOException {
+        return new Product(
+                in.readLong(),
+                in.readUTF(),
+                in.readUTF(),
+                readDecimal(in),
+                in.readInt(),
+                in.readBoolean(),
+                readDateTime(in),
+                readDateTime(in)
+        );
+    }
+
+    static void writeOrder(DataOutput out, Order order) throws IOException {
+        out.writeLong(order.getId());
+        out.writeLong(order.getProductId());
+        out.writeUTF(order.getProductName());
+        out.writeInt(order.getQuantityOrdered());
+        writeDateTime(out, order.getOrderDate());
+    }
+
+    static Order readOrder(DataInput in) throws IOException {
+        return new Order(
+                in.readLong(),
+                in.readLong(),
+                in.readUTF(),
+                in.readInt(),
+                readDateTime(in)
+        );
+    }
+
+    /**
+     * Scale and length take one byte each. A value that does not fit is refused before anything is written,
+     * so it never reaches a record.
+     */
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        if (value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE || unscaled.length > 0xFF) {
+            throw new IllegalArgumentException("Price cannot be stored: " + value);
+        }
+        out.writeByte(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int scale = in.readByte();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,181 @@
+package com.checkpoint.productmanagement.persistence;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.service.OrderService;
+import com.checkpoint.productmanagement.service.ProductService;
+import com.checkpoint.productmanagement.store.ProductStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Restores products and orders on startup and takes periodic snapshots.
+ * Recovery loads the newest valid snapshot and replays the WAL segments written after it.
+ * Replaying is idempotent: upserts carry the full product, deletes are by id and orders are
+ * de-duplicated by id, so records already contained in the snapshot can be applied again safely.
+ * <p>
+ * A product store that kept its products across a clean shutdown ({@link ProductStore#keptAt()}) is used as is
+ * when the WAL still covers it: only the orders are read from the snapshot, and the products are brought up to
+ * date by the same replay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecoveryService {
+    private final PersistenceProperties properties;
+    private final WriteAheadLog writeAheadLog;
+    private final SnapshotStore snapshotStore;
+    private final ProductService productService;
+    private final OrderService orderService;
+    private final ProductStore productStore;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    @PostConstruct
+    public void recover() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Set<Long> restoredOrders = new HashSet<>();
+        WalVisitor visitor = new WalVisitor() {
+            @Override
+            public void productUpserted(Product product) {
+                try {
+                    productService.restoreProduct(product);
+                } catch (IllegalArgumentException e) {
+                    // Refused by the store when it was written too, and taken back by a deletion right after
+                    log.warn("Skipping product {}: {}", product.getId(), e.getMessage());
+                }
+            }
+
+            @Override
+            public void productDeleted(long productId) {
+                productService.restoreDeletion(productId);
+            }
+
+            @Override
+            public void orderPlaced(Order order) {
+                if (restoredOrders.add(order.getId())) {
+                    orderService.restoreOrder(order);
+                }
+            }
+        };
+
+        WalVisitor ordersOnly = new WalVisitor() {
+            @Override
+            public void productUpserted(Product product) {
+            }
+
+            @Override
+            public void productDeleted(long productId) {
+            }
+
+            @Override
+            public void orderPlaced(Order order) {
+                visitor.orderPlaced(order);
+            }
+        };
+
+        OptionalLong kept = productStore.keptAt();
+        AtomicBoolean useKept = new AtomicBoolean(kept.isPresent());
+        Optional<SnapshotStore.Header> snapshot = snapshotStore.loadLatest(header -> {
+            // Kept products are current as of their segment; replaying from an older one only re-applies writes
+            if (kept.isPresent() && kept.getAsLong() < header.getSegment()) {
+                log.warn("Product store was kept at WAL segment {}, before snapshot {}; reloading it from the snapshot",
+                        kept.getAsLong(), header.getSegment());
+                productStore.discardKept();
+                useKept.set(false);
+            }
+            return useKept.get() ? ordersOnly : visitor;
+        });
+        long replayFrom = 0;
+        if (snapshot.isPresent()) {
+            replayFrom = snapshot.get().getSegment();
+            productService.restoreNextProductId(snapshot.get().getNextProductId());
+            orderService.restoreNextOrderId(snapshot.get().getNextOrderId());
+        }
+        if (useKept.get()) {
+            productService.restoreKeptProducts();
+        }
+        writeAheadLog.replay(replayFrom, visitor);
+        writeAheadLog.open(Math.max(replayFrom, writeAheadLog.lastSegment() + 1));
+
+        log.info("Recovered {} products and {} orders in {} ms",
+                productService.getAllProducts().size(), restoredOrders.size(), System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${persistence.snapshot-interval-ms:300000}",
+            initialDelayString = "${persistence.snapshot-interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (properties.isEnabled()) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Take a last snapshot and let the product store keep its products as of the segment it is named after
+     */
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        snapshotLock.lock();
+        try {
+            productStore.keepOnClose(writeSnapshot());
+        } catch (IOException e) {
+            log.error("Error writing snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Roll the WAL, write a snapshot of the current state and drop the files it makes obsolete.
+     * <p>
+     * Writes are appended to the WAL before they show in the stores, so a write appended to the segment just
+     * closed may still be missing from what is captured. The snapshot is therefore named after that closed
+     * segment: recovery replays it again, which is idempotent, and it is only deleted by the next snapshot.
+     */
+    public void snapshot() {
+        if (!snapshotLock.tryLock()) {
+            return;
+        }
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            log.error("Error writing snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Called while holding the snapshot lock; returns the segment the snapshot is named after
+     */
+    private long writeSnapshot() throws IOException {
+        long segment = writeAheadLog.roll() - 1;
+        SnapshotStore.Header header = new SnapshotStore.Header(
+                segment, productService.getNextProductId(), orderService.getNextOrderId());
+        List<Product> products = productService.getAllProducts();
+        // Archived orders are durable in the order store's own files
+        List<Order> orders = orderService.getUnarchivedOrders();
+        snapshotStore.write(header, products, orders);
+        snapshotStore.deleteSnapshotsBefore(segment);
+        writeAheadLog.deleteSegmentsBefore(segment);
+        return segment;
+    }
+}
@@ -0,0 +1,174 @@
+package com.checkpoint.productmanagement.persistence;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary snapshots of the whole catalog and order history.
+ * A snapshot named after WAL segment N holds everything written before that segment was opened,
+ * so recovery loads it and replays segments N and later. The file ends with a CRC32 of its content.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotStore {
+    private static final int MAGIC = 0x50524F44;
+    private static final int VERSION = 1;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+
+    private final PersistenceProperties properties;
+
+    /**
+     * Ids to continue from after a snapshot was loaded
+     */
+    @Value
+    public static class Header {
+        long segment;
+        long nextProductId;
+        long nextOrderId;
+    }
+
+    public void write(Header header, Collection<Product> products, Collection<Order> orders) throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        Path target = directory.resolve(fileName(header.getSegment()));
+        Path temp = directory.resolve(fileName(header.getSegment()) + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedOutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(header.getSegment());
+            out.writeLong(header.getNextProductId());
+            out.writeLong(header.getNextOrderId());
+            out.writeInt(products.size());
+            for (Product product : products) {
+                RecordCodec.writeProduct(out, product);
+            }
+            out.writeInt(orders.size());
+            for (Order order : orders) {
+                RecordCodec.writeOrder(out, order);
+            }
+            out.flush();
+            // Trailer is not part of the checksum
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.flush();
+            // Older WAL segments are deleted once the snapshot exists, so it must be on disk first
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.info("Wrote snapshot {} with {} products and {} orders", target.getFileName(), products.size(), orders.size());
+    }
+
+    /**
+     * Load the newest snapshot that passes its checksum into the visitor chosen from its header
+     */
+    public Optional<Header> loadLatest(Function<Header, WalVisitor> visitorFor) throws IOException {
+        for (Path path : snapshots()) {
+            if (!isValid(path)) {
+                log.warn("Ignoring corrupt snapshot {}", path);
+                continue;
+            }
+            return Optional.of(load(path, visitorFor));
+        }
+        return Optional.empty();
+    }
+
+    public void deleteSnapshotsBefore(long keepFrom) throws IOException {
+        for (Path path : snapshots()) {
+            if (segmentNumber(path) < keepFrom) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private Header load(Path path, Function<Header, WalVisitor> visitorFor) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            in.readInt();
+            in.readInt();
+            Header header = new Header(in.readLong(), in.readLong(), in.readLong());
+            WalVisitor visitor = visitorFor.apply(header);
+            int products = in.readInt();
+            for (int i = 0; i < products; i++) {
+                visitor.productUpserted(RecordCodec.readProduct(in));
+            }
+            int orders = in.readInt();
+            for (int i = 0; i < orders; i++) {
+                visitor.orderPlaced(RecordCodec.readOrder(in));
+            }
+            log.info("Loaded snapshot {} with {} products and {} orders", path.getFileName(), products, orders);
+            return header;
+        }
+    }
+
+    private boolean isValid(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size < 8) {
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16), crc);
+             DataInputStream data = new DataInputStream(in)) {
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                return false;
+            }
+            data.skipNBytes(size - 16);
+            long expected = crc.getValue();
+            return new DataInputStream(in).readLong() == expected;
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+                    })
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+        }
+    }
+
+    private static String fileName(long segment) {
+        return String.format("%s%020d%s", SNAPSHOT_PREFIX, segment, SNAPSHOT_SUFFIX);
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,16 @@
+package com.checkpoint.productmanagement.persistence;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+
+/**
+ * Receives the records read back from snapshots and WAL segments
+ */
+public interface WalVisitor {
+
+    void productUpserted(Product product);
+
+    void productDeleted(long productId);
+
+    void orderPlaced(Order order);
+}
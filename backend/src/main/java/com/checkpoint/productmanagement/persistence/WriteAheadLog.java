@@ -0,0 +1,291 @@
+package com.checkpoint.productmanagement.persistence;
+
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.entity.Product;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary append-only log of product and order mutations.
+ * Each record is {@code [int length][int crc32][byte type][payload]}. The log is split into numbered
+ * segments; a snapshot taken after rolling to segment N makes every older segment obsolete.
+ */
+@Component
+@EnableConfigurationProperties(PersistenceProperties.class)
+@Slf4j
+public class WriteAheadLog {
+    private static final byte PRODUCT_UPSERT = 1;
+    private static final byte PRODUCT_DELETE = 2;
+    private static final byte ORDER = 3;
+    private static final int HEADER_SIZE = 8;
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final PersistenceProperties properties;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ThreadLocal<RecordBuffer> buffers = ThreadLocal.withInitial(RecordBuffer::new);
+    private FileChannel channel;
+    private long segment;
+
+    public WriteAheadLog(PersistenceProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Start appending to a new segment. Called once recovery has replayed the existing ones.
+     */
+    public void open(long firstSegment) throws IOException {
+        writeLock.lock();
+        try {
+            openSegment(firstSegment);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void appendProductUpsert(Product product) {
+        if (!isEnabled()) {
+            return;
+        }
+        RecordBuffer buffer = buffers.get().start(PRODUCT_UPSERT);
+        try {
+            RecordCodec.writeProduct(buffer.data, product);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(buffer);
+    }
+
+    public void appendProductDelete(long productId) {
+        if (!isEnabled()) {
+            return;
+        }
+        RecordBuffer buffer = buffers.get().start(PRODUCT_DELETE);
+        try {
+            buffer.data.writeLong(productId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(buffer);
+    }
+
+    public void appendOrder(Order order) {
+        if (!isEnabled()) {
+            return;
+        }
+        RecordBuffer buffer = buffers.get().start(ORDER);
+        try {
+            RecordCodec.writeOrder(buffer.data, order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        append(buffer);
+    }
+
+    /**
+     * Close the current segment and continue in the next one. Returns the new segment number.
+     */
+    public long roll() throws IOException {
+        writeLock.lock();
+        try {
+            channel.close();
+            openSegment(segment + 1);
+            return segment;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Highest segment number on disk, or 0 if there is none
+     */
+    public long lastSegment() throws IOException {
+        return segments().stream().mapToLong(WriteAheadLog::segmentNumber).max().orElse(0);
+    }
+
+    /**
+     * Replay every record of the segments numbered {@code fromSegment} and later, in order.
+     * Reading a segment stops at the first truncated or corrupt record.
+     */
+    public void replay(long fromSegment, WalVisitor visitor) throws IOException {
+        for (Path path : segments()) {
+            if (segmentNumber(path) >= fromSegment) {
+                replaySegment(path, visitor);
+            }
+        }
+    }
+
+    public void deleteSegmentsBefore(long keepFrom) throws IOException {
+        for (Path path : segments()) {
+            if (segmentNumber(path) < keepFrom) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void append(RecordBuffer buffer) {
+        ByteBuffer record = buffer.finish();
+        writeLock.lock();
+        try {
+            if (channel == null) {
+                throw new IllegalStateException("Write-ahead log is not open");
+            }
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (properties.isFsync()) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing to write-ahead log", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segment = number;
+    }
+
+    private void replaySegment(Path path, WalVisitor visitor) throws IOException {
+        CRC32 crc = new CRC32();
+        long records = 0;
+        long remaining = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int checksum = in.readInt();
+                remaining -= HEADER_SIZE;
+                // A torn header can hold any length, it must not be trusted for the allocation
+                if (length < 1 || length > remaining) {
+                    log.warn("Corrupt record length in {} after {} records, skipping the rest of the segment", path, records);
+                    break;
+                }
+                remaining -= length;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Corrupt record in {} after {} records, skipping the rest of the segment", path, records);
+                    break;
+                }
+                apply(payload, visitor);
+                records++;
+            }
+        } catch (EOFException e) {
+            log.warn("Truncated record at the end of {} after {} records", path, records);
+        }
+        log.info("Replayed {} records from {}", records, path.getFileName());
+    }
+
+    private void apply(byte[] payload, WalVisitor visitor) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case PRODUCT_UPSERT -> visitor.productUpserted(RecordCodec.readProduct(in));
+            case PRODUCT_DELETE -> visitor.productDeleted(in.readLong());
+            case ORDER -> visitor.orderPlaced(RecordCodec.readOrder(in));
+            default -> throw new IOException("Unknown WAL record type " + type);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        Path directory = Path.of(properties.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Per-thread buffer a record is encoded into before it is framed and written
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+        private final CRC32 crc = new CRC32();
+
+        RecordBuffer() {
+            super(256);
+        }
+
+        RecordBuffer start(byte type) {
+            reset();
+            pad(HEADER_SIZE);
+            write(type);
+            return this;
+        }
+
+        ByteBuffer finish() {
+            int length = count - HEADER_SIZE;
+            crc.reset();
+            crc.update(buf, HEADER_SIZE, length);
+            return ByteBuffer.wrap(buf, 0, count)
+                    .putInt(0, length)
+                    .putInt(4, (int) crc.getValue());
+        }
+
+        private void pad(int bytes) {
+            for (int i = 0; i < bytes; i++) {
+                write(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.checkpoint.productmanagement.search;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted ids of the products holding one term.
+ * New products get increasing ids, so adding is almost always an append. A postings list that becomes
+ * empty is marked dead once it is removed from the dictionary, and writers that still hold it start over.
+ * The lock is a ReentrantLock: searches and writes may run on virtual threads, which a monitor would pin.
+ */
+final class Postings {
+    private long[] ids = new long[2];
+    private int size;
+    private boolean dead;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Add an id; false when this list was dropped from the dictionary and the caller must look the term up again
+     */
+    boolean add(long id) {
+        lock.lock();
+        try {
+            if (dead) {
+                return false;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return true;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length + (ids.length >> 1) + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove an id; returns true when the list is now empty and has been marked dead
+     */
+    boolean remove(long id) {
+        lock.lock();
+        try {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+            if (size == 0) {
+                dead = true;
+            }
+            return dead;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Up to {@code max} ids in ascending order, copied so the caller can use them without holding the lock
+     */
+    long[] first(int max) {
+        lock.lock();
+        try {
+            return Arrays.copyOf(ids, Math.min(size, max));
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.checkpoint.productmanagement.search;
+
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
+import com.checkpoint.productmanagement.store.ProductStore;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted index over product names and categories, for ranked full-text and typeahead search.
+ * <p>
+ * Terms are kept in a sorted dictionary, so every query term matches as a prefix with one range lookup.
+ * The index follows product writes (creations, updates, deletions, CSV imports and startup recovery)
+ * and only touches the terms that changed, so an order changing a quantity costs no index work.
+ * Changes are delivered after the write, so two quick renames of one product may arrive in either order:
+ * the terms are therefore taken from the product as stored when the change is applied, under a lock of its id,
+ * and the last change to be applied always leaves the current terms.
+ * <p>
+ * A query walks the postings of its most selective term, exact matches first, and scores at most
+ * {@code search.max-candidates} products against all its terms. Broad prefixes such as a single letter
+ * therefore answer in bounded time with the best of the first candidates rather than of every match.
+ */
+@Component
+@EnableConfigurationProperties(SearchProperties.class)
+@RequiredArgsConstructor
+public class ProductSearchIndex implements ProductChangeListener {
+    private static final int MAX_LIMIT = 100;
+    // Snowflake ids vary mostly in their middle bits, so ids are hashed onto the locks
+    private static final int PRODUCT_LOCK_BITS = 8;
+    private static final Comparator<Scored> RANKING = Comparator.comparingInt(Scored::getScore).reversed()
+            .thenComparingInt(scored -> scored.getProduct().getName().length())
+            .thenComparingLong(scored -> scored.getProduct().getId());
+
+    private final SearchProperties properties;
+    private final ProductStore productStore;
+    private final InventoryMetrics metrics;
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final ReentrantLock[] productLocks = newProductLocks();
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        Set<String> before = terms(change.getBefore());
+        Set<String> after = terms(change.getAfter());
+        if (before.equals(after)) {
+            return;
+        }
+        long id = change.getProductId();
+        ReentrantLock lock = productLocks[(int) ((id * 0x9E3779B97F4A7C15L) >>> (64 - PRODUCT_LOCK_BITS))];
+        lock.lock();
+        try {
+            // A later change may already be stored, and its own update may have run before this one
+            Set<String> current = terms(productStore.findById(id).orElse(null));
+            for (String term : before) {
+                if (!current.contains(term)) {
+                    remove(term, id);
+                }
+            }
+            for (String term : after) {
+                if (!current.contains(term)) {
+                    remove(term, id);
+                }
+            }
+            for (String term : current) {
+                add(term, id);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Products matching every term of the query, the last one possibly typed only in part, best match first.
+     * A term scores most as a whole word of the name, then as the start of a name word, then in the category.
+     */
+    public List<Product> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            if (limit < 1 || limit > MAX_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+            }
+            List<String> queryTerms = new ArrayList<>(new HashSet<>(Tokenizer.tokens(query)));
+            if (queryTerms.isEmpty()) {
+                return List.of();
+            }
+            return rank(queryTerms, candidates(queryTerms), limit);
+        } finally {
+            metrics.record(InventoryMetrics.Operation.SEARCH_PRODUCTS, start);
+        }
+    }
+
+    /**
+     * Ids holding the most selective query term as a word or word prefix, exact matches first
+     */
+    private Set<Long> candidates(List<String> queryTerms) {
+        int max = properties.getMaxCandidates();
+        List<Postings> best = null;
+        long bestCount = Long.MAX_VALUE;
+        for (String queryTerm : queryTerms) {
+            List<Postings> matches = new ArrayList<>();
+            long count = 0;
+            // The exact term sorts first in its own prefix range
+            for (Postings postings : prefixRange(queryTerm).values()) {
+                matches.add(postings);
+                count += postings.size();
+                if (count >= max) {
+                    break;
+                }
+            }
+            if (count < bestCount) {
+                best = matches;
+                bestCount = count;
+            }
+        }
+
+        Set<Long> candidates = new HashSet<>();
+        for (Postings postings : best) {
+            for (long id : postings.first(max - candidates.size())) {
+                candidates.add(id);
+            }
+            if (candidates.size() >= max) {
+                break;
+            }
+        }
+        return candidates;
+    }
+
+    private List<Product> rank(List<String> queryTerms, Set<Long> candidates, int limit) {
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (Long id : candidates) {
+            Optional<Product> product = productStore.findById(id);
+            if (product.isEmpty()) {
+                continue;
+            }
+            int score = score(queryTerms, product.get());
+            if (score > 0) {
+                top.add(new Scored(product.get(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Scored> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        return ranked.stream().map(Scored::getProduct).toList();
+    }
+
+    /**
+     * Sum of the best match of every query term, or 0 when a term does not match
+     */
+    private static int score(List<String> queryTerms, Product product) {
+        int total = 0;
+        for (String queryTerm : queryTerms) {
+            int name = Tokenizer.match(product.getName(), queryTerm);
+            int category = Tokenizer.match(product.getCategory(), queryTerm);
+            // Whole word 6, word start 4, one more on the first word of the name; category matches 3 and 2
+            int best = Math.max(name == 0 ? 0 : name + 2, category == 0 ? 0 : category / 2 + 1);
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private static Set<String> terms(Product product) {
+        return product == null ? Set.of() : Tokenizer.terms(product.getName(), product.getCategory());
+    }
+
+    private static ReentrantLock[] newProductLocks() {
+        ReentrantLock[] locks = new ReentrantLock[1 << PRODUCT_LOCK_BITS];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private ConcurrentNavigableMap<String, Postings> prefixRange(String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void add(String term, long id) {
+        while (true) {
+            Postings postings = terms.computeIfAbsent(term, key -> new Postings());
+            if (postings.add(id)) {
+                return;
+            }
+            // Emptied by a concurrent removal, replace it
+            terms.remove(term, postings);
+        }
+    }
+
+    private void remove(String term, long id) {
+        Postings postings = terms.get(term);
+        if (postings != null && postings.remove(id)) {
+            terms.remove(term, postings);
+        }
+    }
+
+    @Value
+    private static class Scored {
+        Product product;
+        int score;
+    }
+}
@@ -0,0 +1,14 @@
+package com.checkpoint.productmanagement.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of product search
+ */
+@Data
+@ConfigurationProperties(prefix = "search")
+public class SearchProperties {
+    /** Products scored per query at most; bounds the latency of very broad prefixes such as a single letter */
+    private int maxCandidates = 2000;
+}
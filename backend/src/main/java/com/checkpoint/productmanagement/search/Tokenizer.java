@@ -0,0 +1,126 @@
+package com.checkpoint.productmanagement.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower-case terms of letters and digits, with accents removed,
+ * so "Café-Crème 2L" is indexed and searched as {@code cafe}, {@code creme} and {@code 2l}.
+ */
+final class Tokenizer {
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private Tokenizer() {
+    }
+
+    /**
+     * Terms in text order, repeats included
+     */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        if (!isAscii(text)) {
+            String normalized = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String token : SEPARATORS.split(normalized)) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+            return tokens;
+        }
+        // Most names are plain ASCII, split them without normalizing or regular expressions
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isAsciiWordChar(c)) {
+                token.append(lowerAscii(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * How well a term matches the words of a text: 0 for no match, 2 for the start of a word, 4 for a whole word,
+     * plus one when it is the first word. Plain ASCII text is matched in place without splitting it.
+     */
+    static int match(String text, String term) {
+        if (text == null) {
+            return 0;
+        }
+        int best = 0;
+        if (!isAscii(text)) {
+            List<String> words = tokens(text);
+            for (int i = 0; i < words.size(); i++) {
+                best = Math.max(best, quality(words.get(i).equals(term), words.get(i).startsWith(term), i == 0));
+            }
+            return best;
+        }
+        int word = 0;
+        int i = 0;
+        while (i < text.length()) {
+            if (!isAsciiWordChar(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int length = 0;
+            boolean matches = true;
+            for (; i < text.length() && isAsciiWordChar(text.charAt(i)); i++, length++) {
+                if (matches && length < term.length() && lowerAscii(text.charAt(i)) != term.charAt(length)) {
+                    matches = false;
+                }
+            }
+            boolean prefix = matches && length >= term.length();
+            best = Math.max(best, quality(prefix && length == term.length(), prefix, word == 0));
+            word++;
+        }
+        return best;
+    }
+
+    private static int quality(boolean exact, boolean prefix, boolean first) {
+        if (!prefix) {
+            return 0;
+        }
+        return (exact ? 4 : 2) + (first ? 1 : 0);
+    }
+
+    private static boolean isAsciiWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+    }
+
+    private static char lowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Distinct terms of a product's name and category, the terms it is indexed under
+     */
+    static Set<String> terms(String name, String category) {
+        Set<String> terms = new LinkedHashSet<>(tokens(name));
+        terms.addAll(tokens(category));
+        return terms;
+    }
+}
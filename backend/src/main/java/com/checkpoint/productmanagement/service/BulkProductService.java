@@ -0,0 +1,214 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.config.BulkProperties;
+import com.checkpoint.productmanagement.dto.BulkItemResult;
+import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.entity.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Bulk create, update and delete of products from a stream of JSON items.
+ * <p>
+ * Items are read one at a time and handled in batches of {@code bulk.batch-size}: the batch is bound and
+ * validated by several threads, then its valid items are written with one ProductService call, which takes
+ * one timestamp, writes one journal group and notifies listeners once. Results are reported per item, in
+ * request order, as soon as their batch is written, so neither the request nor the response is held in memory.
+ * Items are independent: an invalid item is reported and skipped, and batches already written stay written.
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkProductService {
+    private final ProductService productService;
+    private final BulkProperties properties;
+    private final ThreadPoolTaskExecutor bulkValidationExecutor;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public void createProducts(MappingIterator<JsonNode> items, Consumer<BulkItemResult> results) throws IOException {
+        process(items, results, this::toProduct, batch -> {
+            List<Product> created = productService.createProducts(batch);
+            return created.stream().map(product -> result(product.getId(), BulkItemResult.Status.CREATED)).toList();
+        });
+    }
+
+    /**
+     * Replace products; every item carries the id of the product it replaces
+     */
+    public void updateProducts(MappingIterator<JsonNode> items, Consumer<BulkItemResult> results) throws IOException {
+        process(items, results, node -> {
+            Checked<ProductDto> checked = toProduct(node);
+            if (checked.value != null && checked.value.getId() == null) {
+                return Checked.invalid(List.of("id: Product id is required"));
+            }
+            return checked;
+        }, batch -> {
+            Map<Integer, String> refused = new HashMap<>();
+            List<Optional<Product>> updated = productService.updateProducts(batch, refused);
+            List<BulkItemResult> batchResults = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                // Only a quantity below the stock reserved for the product is refused item by item
+                String reason = refused.get(i);
+                batchResults.add(reason != null
+                        ? new BulkItemResult(0, batch.get(i).getId(), BulkItemResult.Status.INVALID, List.of("quantity: " + reason))
+                        : result(batch.get(i).getId(), updated.get(i).isPresent()
+                                ? BulkItemResult.Status.UPDATED : BulkItemResult.Status.NOT_FOUND));
+            }
+            return batchResults;
+        });
+    }
+
+    /**
+     * Delete products; every item is a product id or an object with an {@code id}
+     */
+    public void deleteProducts(MappingIterator<JsonNode> items, Consumer<BulkItemResult> results) throws IOException {
+        process(items, results, node -> {
+            JsonNode id = node.isObject() ? node.get("id") : node;
+            return id != null && id.canConvertToLong() && id.isIntegralNumber()
+                    ? Checked.valid(id.asLong())
+                    : Checked.invalid(List.of("id: Product id is required"));
+        }, batch -> {
+            List<Optional<Product>> deleted = productService.deleteProducts(batch);
+            List<BulkItemResult> batchResults = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                batchResults.add(result(batch.get(i), deleted.get(i).isPresent()
+                        ? BulkItemResult.Status.DELETED : BulkItemResult.Status.NOT_FOUND));
+            }
+            return batchResults;
+        });
+    }
+
+    private <T> void process(MappingIterator<JsonNode> items, Consumer<BulkItemResult> results,
+                             Function<JsonNode, Checked<T>> check, Function<List<T>, List<BulkItemResult>> write)
+            throws IOException {
+        int index = 0;
+        List<JsonNode> batch = new ArrayList<>(properties.getBatchSize());
+        try {
+            while (items.hasNextValue()) {
+                batch.add(items.nextValue());
+                if (batch.size() == properties.getBatchSize()) {
+                    writeBatch(index, batch, results, check, write);
+                    index += batch.size();
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            // The rest of the stream cannot be read, write what was read and report where it broke
+            writeBatch(index, batch, results, check, write);
+            results.accept(new BulkItemResult(index + batch.size(), null, BulkItemResult.Status.INVALID,
+                    List.of("Malformed JSON: " + e.getOriginalMessage())));
+            return;
+        }
+        writeBatch(index, batch, results, check, write);
+    }
+
+    private <T> void writeBatch(int firstIndex, List<JsonNode> batch, Consumer<BulkItemResult> results,
+                                Function<JsonNode, Checked<T>> check, Function<List<T>, List<BulkItemResult>> write) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Checked<T>> checked = checkInParallel(batch, check);
+        List<T> valid = new ArrayList<>(checked.size());
+        for (Checked<T> item : checked) {
+            if (item.value != null) {
+                valid.add(item.value);
+            }
+        }
+        List<BulkItemResult> written = valid.isEmpty() ? List.of() : write.apply(valid);
+        int next = 0;
+        for (int i = 0; i < checked.size(); i++) {
+            BulkItemResult result = checked.get(i).value != null
+                    ? written.get(next++)
+                    : new BulkItemResult(0, null, BulkItemResult.Status.INVALID, checked.get(i).errors);
+            result.setIndex(firstIndex + i);
+            results.accept(result);
+        }
+    }
+
+    /**
+     * Check slices of the batch on the validation workers, the first slice on the calling thread
+     */
+    private <T> List<Checked<T>> checkInParallel(List<JsonNode> batch, Function<JsonNode, Checked<T>> check) {
+        int slices = Math.max(1, Math.min(properties.getWorkers(), batch.size() / 64));
+        int sliceSize = (batch.size() + slices - 1) / slices;
+        List<Future<List<Checked<T>>>> futures = new ArrayList<>(slices);
+        for (int start = sliceSize; start < batch.size(); start += sliceSize) {
+            List<JsonNode> slice = batch.subList(start, Math.min(batch.size(), start + sliceSize));
+            futures.add(bulkValidationExecutor.submit(() -> slice.stream().map(check).toList()));
+        }
+        List<Checked<T>> checked = new ArrayList<>(batch.size());
+        batch.subList(0, Math.min(batch.size(), sliceSize)).forEach(node -> checked.add(check.apply(node)));
+        for (Future<List<Checked<T>>> future : futures) {
+            try {
+                checked.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Bulk validation interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Bulk validation failed", e.getCause());
+            }
+        }
+        return checked;
+    }
+
+    private Checked<ProductDto> toProduct(JsonNode node) {
+        ProductDto product;
+        try {
+            product = objectMapper.treeToValue(node, ProductDto.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return Checked.invalid(List.of("Invalid product: " + e.getMessage().lines().findFirst().orElse("")));
+        }
+        if (product == null) {
+            return Checked.invalid(List.of("Invalid product: null"));
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<ProductDto> violation : validator.validate(product)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        errors.sort(null);
+        return errors.isEmpty() ? Checked.valid(product) : Checked.invalid(errors);
+    }
+
+    private static BulkItemResult result(Long id, BulkItemResult.Status status) {
+        return new BulkItemResult(0, id, status, null);
+    }
+
+    /**
+     * An item bound and validated, or the reasons it is invalid
+     */
+    private static final class Checked<T> {
+        final T value;
+        final List<String> errors;
+
+        private Checked(T value, List<String> errors) {
+            this.value = value;
+            this.errors = errors;
+        }
+
+        static <T> Checked<T> valid(T value) {
+            return new Checked<>(value, null);
+        }
+
+        static <T> Checked<T> invalid(List<String> errors) {
+            return new Checked<>(null, errors);
+        }
+    }
+}
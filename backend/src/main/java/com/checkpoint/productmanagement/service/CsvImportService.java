@@ -1,32 +1,62 @@
 package com.checkpoint.productmanagement.service;
 
+import com.checkpoint.productmanagement.config.CsvImportProperties;
 import com.checkpoint.productmanagement.dto.ProductDto;
 import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
 import com.opencsv.CSVReader;
 import com.opencsv.exceptions.CsvValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CsvImportService {
-    
+
+    private static final List<CsvRow> END_OF_INPUT = List.of();
+
     private final ProductService productService;
+    private final CsvImportProperties properties;
+    private final ThreadPoolTaskExecutor csvImportJobExecutor;
+    private final ThreadPoolTaskExecutor csvImportWorkerExecutor;
+    private final InventoryMetrics metrics;
+    private final Validator validator;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
     
     /**
      * Import products from CSV file
      */
     public ImportResult importProductsFromCsv(MultipartFile file) {
         
+        long start = System.nanoTime();
         ImportResult result = new ImportResult();
         List<String> errors = new ArrayList<>();
         int successCount = 0;
@@ -58,6 +88,9 @@ public class CsvImportService {
             errors.add(error);
         }
         
+        metrics.csvRowsImported(successCount);
+        metrics.csvImportFinished(successCount, System.nanoTime() - start);
+
         result.setSuccessCount(successCount);
         result.setErrorCount(errors.size());
         result.setErrors(errors);
@@ -66,6 +99,186 @@ public class CsvImportService {
     }
     
 
+    /**
+     * Start a streaming import of a CSV file in the background.
+     * The upload is spooled to a temporary file, read in chunks into a bounded queue and
+     * validated and inserted by a pool of workers.
+     */
+    public ImportJob startImport(MultipartFile file) throws IOException {
+        return startImport(file, () -> { });
+    }
+
+    /**
+     * Start a streaming import, {@code onFinished} runs once the job has ended or could not be started
+     */
+    public ImportJob startImport(MultipartFile file, Runnable onFinished) throws IOException {
+        boolean started = false;
+        try {
+            Path csvFile = Files.createTempFile("product-import-", ".csv");
+            file.transferTo(csvFile);
+
+            ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), properties.getMaxErrors());
+            jobs.put(job.getId(), job);
+            try {
+                csvImportJobExecutor.execute(() -> {
+                    try {
+                        runImport(job, csvFile);
+                    } finally {
+                        onFinished.run();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                jobs.remove(job.getId());
+                Files.deleteIfExists(csvFile);
+                throw new IllegalStateException("Too many imports in progress", e);
+            }
+            started = true;
+            return job;
+        } finally {
+            if (!started) {
+                onFinished.run();
+            }
+        }
+    }
+
+    public Optional<ImportJob> getImportJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void removeExpiredJobs() {
+        LocalDateTime expiry = LocalDateTime.now().minusMinutes(properties.getJobRetentionMinutes());
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(expiry));
+    }
+
+    private void runImport(ImportJob job, Path csvFile) {
+        long start = System.nanoTime();
+        job.markRunning();
+        BlockingQueue<List<CsvRow>> queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.add(csvImportWorkerExecutor.submit(() -> consumeChunks(job, queue)));
+        }
+
+        String failure = null;
+        try (CSVReader reader = new CSVReader(Files.newBufferedReader(csvFile))) {
+            String[] header = reader.readNext();
+            if (header == null || header.length < 4) {
+                throw new IllegalArgumentException("CSV file must have at least 4 columns: name, category, price, quantity");
+            }
+
+            List<CsvRow> chunk = new ArrayList<>(properties.getChunkSize());
+            String[] line;
+            int lineNumber = 1;
+            while ((line = reader.readNext()) != null) {
+                lineNumber++;
+                chunk.add(new CsvRow(lineNumber, line));
+                if (chunk.size() == properties.getChunkSize()) {
+                    job.rowsRead(chunk.size());
+                    put(queue, chunk, workers);
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                job.rowsRead(chunk.size());
+                put(queue, chunk, workers);
+            }
+        } catch (IOException | CsvValidationException | IllegalArgumentException e) {
+            failure = "Error reading CSV file: " + e.getMessage();
+        } catch (IllegalStateException e) {
+            failure = e.getMessage();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = "Import interrupted";
+        } finally {
+            signalEndOfInput(queue, workers);
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = "Import interrupted";
+            } catch (ExecutionException e) {
+                failure = "Import worker failed: " + e.getCause().getMessage();
+            }
+        }
+
+        try {
+            Files.deleteIfExists(csvFile);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}", csvFile, e);
+        }
+
+        metrics.csvImportFinished(job.getSuccessCount(), System.nanoTime() - start);
+        if (failure == null) {
+            job.markCompleted();
+        } else {
+            job.markFailed(failure);
+        }
+        log.info("CSV import {} finished: {} imported, {} errors", job.getId(), job.getSuccessCount(), job.getErrorCount());
+    }
+
+    /**
+     * Queue a chunk for the workers. Throws IllegalStateException instead of waiting forever once every worker
+     * has stopped, as nothing would ever take it.
+     */
+    private void put(BlockingQueue<List<CsvRow>> queue, List<CsvRow> chunk, List<Future<?>> workers)
+            throws InterruptedException {
+        while (!queue.offer(chunk, properties.getQueueTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+            if (workers.stream().allMatch(Future::isDone)) {
+                throw new IllegalStateException("Import workers stopped");
+            }
+        }
+    }
+
+    private void signalEndOfInput(BlockingQueue<List<CsvRow>> queue, List<Future<?>> workers) {
+        boolean interrupted = false;
+        int signalled = 0;
+        while (signalled < workers.size()) {
+            try {
+                put(queue, END_OF_INPUT, workers);
+                signalled++;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (IllegalStateException e) {
+                // No worker is left to take it
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumeChunks(ImportJob job, BlockingQueue<List<CsvRow>> queue) {
+        try {
+            List<CsvRow> chunk;
+            while ((chunk = queue.take()) != END_OF_INPUT) {
+                List<ProductDto> valid = new ArrayList<>(chunk.size());
+                List<Integer> validLines = new ArrayList<>(chunk.size());
+                for (CsvRow row : chunk) {
+                    try {
+                        valid.add(parseCsvLine(row.getValues(), row.getLineNumber()));
+                        validLines.add(row.getLineNumber());
+                    } catch (Exception e) {
+                        job.error(String.format("Line %d: %s", row.getLineNumber(), e.getMessage()));
+                    }
+                }
+                // Only the rows that were not written are reported, the others of the chunk stay imported
+                Map<Integer, String> refused = new TreeMap<>();
+                int created = productService.createProducts(valid, refused).size();
+                refused.forEach((index, reason) ->
+                        job.error(String.format("Line %d: %s", validLines.get(index), reason)));
+                job.succeeded(created);
+                metrics.csvRowsImported(created);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private ProductDto parseCsvLine(String[] line, int lineNumber) {
         if (line.length < 4) {
             throw new IllegalArgumentException("Line must have at least 4 columns");
@@ -108,9 +321,25 @@ public class CsvImportService {
             throw new IllegalArgumentException("Invalid quantity format: " + quantityStr);
         }
         
-        return new ProductDto(null, name, category, price, quantity);
+        ProductDto productDto = new ProductDto(null, name, category, price, quantity);
+        // The same constraints as a product sent to the API, which the stores and the WAL rely on
+        List<String> violations = new ArrayList<>();
+        for (ConstraintViolation<ProductDto> violation : validator.validate(productDto)) {
+            violations.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (!violations.isEmpty()) {
+            violations.sort(null);
+            throw new IllegalArgumentException(String.join(", ", violations));
+        }
+        return productDto;
     }
     
+    @Value
+    private static class CsvRow {
+        int lineNumber;
+        String[] values;
+    }
+
     /**
      * Result class for CSV import operations
      */
@@ -0,0 +1,128 @@
+package com.checkpoint.productmanagement.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progress of an asynchronous CSV import
+ */
+@Getter
+public class ImportJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private final String id;
+    private final String fileName;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureReason;
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong rowsRead = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    private final AtomicLong successCount = new AtomicLong();
+    @Getter(lombok.AccessLevel.NONE)
+    private final ErrorSink errorSink;
+
+    public ImportJob(String id, String fileName, int maxErrors) {
+        this.id = id;
+        this.fileName = fileName;
+        this.errorSink = new ErrorSink(maxErrors);
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorSink.getCount();
+    }
+
+    /**
+     * The first errors of the job, see {@link #getErrorCount()} for the total
+     */
+    public List<String> getErrors() {
+        return errorSink.snapshot();
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    void rowsRead(int rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    void succeeded(int rows) {
+        successCount.addAndGet(rows);
+    }
+
+    void error(String error) {
+        errorSink.add(error);
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    void markFailed(String reason) {
+        failureReason = reason;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * Keeps the first errors of a job and only counts the rest.
+     * Guarded by a {@link ReentrantLock} rather than a monitor so a virtual thread never pins its carrier here.
+     */
+    private static class ErrorSink {
+        private final int capacity;
+        private final List<String> errors = new ArrayList<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicLong count = new AtomicLong();
+
+        ErrorSink(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void add(String error) {
+            if (count.getAndIncrement() < capacity) {
+                lock.lock();
+                try {
+                    errors.add(error);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        List<String> snapshot() {
+            lock.lock();
+            try {
+                return new ArrayList<>(errors);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
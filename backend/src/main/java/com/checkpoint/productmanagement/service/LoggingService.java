@@ -1,70 +1,51 @@
 package com.checkpoint.productmanagement.service;
 
-import org.springframework.scheduling.annotation.Scheduled;
+import com.checkpoint.productmanagement.journal.JournalEntry;
+import com.checkpoint.productmanagement.journal.OperationJournal;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Records product and order operations in operations.log.
+ * Entries are handed to the {@link OperationJournal}, which formats and writes them in the background.
+ */
 @Service
+@RequiredArgsConstructor
 public class LoggingService {
-    private final Queue<String> pendingOperations = new LinkedList<>();
-    private final String LOG_FILE_PATH = "operations.log";
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private final Object fileWriteLock = new Object();
+    private final OperationJournal journal;
 
     public void logOperation(String operation, Long id, String name, Integer quantity) {
-        String logEntry = String.format("[%s] %s: ID = %d, Name = %s, Quantity = %d", 
-            LocalDateTime.now().format(formatter), operation, id, name, quantity);
-        
-        synchronized (fileWriteLock) {
-            pendingOperations.offer(logEntry);
-            
-            //write to file if we have 5 or more operations
-            if (pendingOperations.size() >= 5) {
-                writeToFile();
-            }
-        }
-    }
-//10 minutes= 600000 millisec
-    @Scheduled(fixedRate = 600000) 
-    public void scheduledLogWrite() {
-        synchronized (fileWriteLock) {
-            if (!pendingOperations.isEmpty()) {
-                writeToFile();
-            }
-        }
+        journal.append(new JournalEntry(System.currentTimeMillis(), operation, id, name, quantity));
     }
 
-    private void writeToFile() {
-        if (pendingOperations.isEmpty()) {
-            return;
-        }
-
-        try (PrintWriter writer = new PrintWriter(new FileWriter(LOG_FILE_PATH, true))) {
-            
-            while (!pendingOperations.isEmpty()) {
-                String operation = pendingOperations.poll();
-                writer.println(operation);
-            }
-            
-            writer.println();
-            
-        } catch (IOException e) {
-            System.err.println("Error writing to log file: " + e.getMessage());
+    /**
+     * Log several operations as one group
+     */
+    public void logOperations(List<Operation> operations) {
+        long timestamp = System.currentTimeMillis();
+        List<JournalEntry> entries = new ArrayList<>(operations.size());
+        for (Operation op : operations) {
+            entries.add(new JournalEntry(timestamp, op.getOperation(), op.getId(), op.getName(), op.getQuantity()));
         }
-        
-
+        journal.appendAll(entries);
     }
 
     public int getPendingOperationsCount() {
-        synchronized (fileWriteLock) {
-            return pendingOperations.size();
-        }
+        return journal.getPendingCount();
+    }
+
+    /**
+     * A single operation to be logged
+     */
+    @Value
+    public static class Operation {
+        String operation;
+        Long id;
+        String name;
+        Integer quantity;
     }
-} 
\ No newline at end of file
+}
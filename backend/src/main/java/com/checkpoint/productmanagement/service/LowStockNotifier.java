@@ -0,0 +1,167 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.config.LowStockProperties;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.LowStockEvent;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes low-stock transitions to Server-Sent Events subscribers.
+ * Only writes that flip a product's low-stock flag produce an event. Each subscriber has its own bounded queue
+ * drained by a sender thread of its own, so a slow subscriber holds up neither the write that caused the event
+ * nor the other subscribers. A subscriber that falls {@code inventory.low-stock.subscriber-queue-capacity}
+ * events behind is disconnected and counted, as it has missed transitions: it should reload
+ * {@code /api/products/low-stock} and subscribe again.
+ */
+@Component
+@Slf4j
+public class LowStockNotifier implements ProductChangeListener {
+    private static final long EMITTER_TIMEOUT = Duration.ofMinutes(30).toMillis();
+
+    private final LowStockPolicy lowStockPolicy;
+    private final InventoryMetrics metrics;
+    private final int queueCapacity;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadPoolExecutor senders;
+
+    public LowStockNotifier(LowStockPolicy lowStockPolicy, LowStockProperties properties, InventoryMetrics metrics,
+                            ThreadFactory lowStockNotifierThreadFactory) {
+        if (properties.getSubscriberQueueCapacity() < 1) {
+            throw new IllegalArgumentException("Subscriber queue capacity must be at least 1");
+        }
+        this.lowStockPolicy = lowStockPolicy;
+        this.metrics = metrics;
+        this.queueCapacity = properties.getSubscriberQueueCapacity();
+        // At most one sender per subscriber is running or queued at any time
+        this.senders = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), lowStockNotifierThreadFactory);
+    }
+
+    public SseEmitter subscribe() {
+        Subscriber subscriber = new Subscriber();
+        SseEmitter emitter = subscriber.emitter;
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        boolean wasLowStock = change.getBefore() != null && change.getBefore().isLowStock();
+        boolean isLowStock = change.getAfter() != null && change.getAfter().isLowStock();
+        if (wasLowStock == isLowStock || subscribers.isEmpty()) {
+            return;
+        }
+        Product product = change.getAfter() != null ? change.getAfter() : change.getBefore();
+        LowStockEvent event = new LowStockEvent(
+                isLowStock ? LowStockEvent.Transition.ENTER : LowStockEvent.Transition.EXIT,
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getQuantity(),
+                lowStockPolicy.thresholdFor(product.getCategory()),
+                LocalDateTime.now()
+        );
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        final BlockingQueue<LowStockEvent> events = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean sending = new AtomicBoolean();
+        volatile boolean closed;
+        volatile boolean overflowed;
+
+        /**
+         * Called on the writing thread, so it never waits for the subscriber
+         */
+        void offer(LowStockEvent event) {
+            if (closed) {
+                return;
+            }
+            if (!events.offer(event)) {
+                // The emitter is completed by the sender, which may be blocked writing to it
+                overflowed = true;
+                close();
+                metrics.lowStockSubscriberDropped();
+                log.warn("Low-stock subscriber fell {} events behind, disconnecting it", queueCapacity);
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private void schedule() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                sending.set(false);
+            }
+        }
+
+        private void drain() {
+            do {
+                LowStockEvent event;
+                while (!closed && (event = events.poll()) != null) {
+                    send(event);
+                }
+                if (closed) {
+                    events.clear();
+                    if (overflowed) {
+                        emitter.complete();
+                    }
+                    // Left set, so nothing is sent to this subscriber again
+                    return;
+                }
+                sending.set(false);
+            } while (!events.isEmpty() && sending.compareAndSet(false, true));
+        }
+
+        private void send(LowStockEvent event) {
+            String name = event.getTransition() == LowStockEvent.Transition.ENTER ? "low-stock-enter" : "low-stock-exit";
+            try {
+                emitter.send(SseEmitter.event().name(name).data(event));
+            } catch (IOException | IllegalStateException e) {
+                close();
+                log.debug("Dropping low-stock subscriber: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.config.LowStockProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether a quantity is low stock for a category
+ */
+@Component
+@EnableConfigurationProperties(LowStockProperties.class)
+@RequiredArgsConstructor
+public class LowStockPolicy {
+    private final LowStockProperties properties;
+
+    public int thresholdFor(String category) {
+        return properties.getCategoryThresholds().getOrDefault(category, properties.getDefaultThreshold());
+    }
+
+    public boolean isLowStock(String category, int quantity) {
+        return quantity < thresholdFor(category);
+    }
+}
@@ -1,65 +1,235 @@
 package com.checkpoint.productmanagement.service;
 
+import com.checkpoint.productmanagement.changes.ChangeLog;
+import com.checkpoint.productmanagement.cluster.IdGenerator;
+import com.checkpoint.productmanagement.dto.BatchOrderDto;
 import com.checkpoint.productmanagement.dto.OrderDto;
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
 import com.checkpoint.productmanagement.entity.Order;
 import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.OrderListener;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
+import com.checkpoint.productmanagement.persistence.WriteAheadLog;
+import com.checkpoint.productmanagement.stock.StockConflictException;
+import com.checkpoint.productmanagement.stock.StockEngine;
+import com.checkpoint.productmanagement.stock.StockReservation;
+import com.checkpoint.productmanagement.stock.UnknownProductException;
+import com.checkpoint.productmanagement.store.OrderStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class OrderService {
     private final ProductService productService;
     private final LoggingService loggingService;
-    private final List<Order> orders = new ArrayList<>();
-    private final AtomicLong orderIdGenerator = new AtomicLong(1);
+    private final StockEngine stockEngine;
+    private final WriteAheadLog writeAheadLog;
+    private final ChangeLog changeLog;
+    private final InventoryMetrics metrics;
+    private final OrderStore orderStore;
+    private final List<OrderListener> orderListeners;
+    private final IdGenerator orderIdGenerator;
 
     public Order processOrder(OrderDto orderDto) {
-        // Get the product
-        Optional<Product> productOpt = productService.getProductById(orderDto.getProductId());
-        if (productOpt.isEmpty()) {
-            throw new IllegalArgumentException("Product not found with ID: " + orderDto.getProductId());
+        long start = System.nanoTime();
+        try {
+            // Get the product
+            Product product = productService.getProductById(orderDto.getProductId()).orElse(null);
+            if (product == null) {
+                metrics.orderRejected(InventoryMetrics.OrderRejection.PRODUCT_NOT_FOUND);
+                throw new IllegalArgumentException("Product not found with ID: " + orderDto.getProductId());
+            }
+
+            // Reserve and commit the stock atomically so concurrent orders cannot oversell
+            StockReservation reservation = reserve(product.getId(), orderDto.getQuantity());
+            stockEngine.commit(reservation);
+            productService.syncQuantity(product.getId());
+
+            // Create order
+            Order order = new Order(
+                orderIdGenerator.nextId(),
+                product.getId(),
+                product.getName(),
+                orderDto.getQuantity(),
+                LocalDateTime.now()
+            );
+            writeAheadLog.appendOrder(order);
+            changeLog.orderPlaced(order);
+            orderStore.add(order);
+            publish(order);
+
+            // Log the order
+            loggingService.logOperation("ORDER", product.getId(), product.getName(), orderDto.getQuantity());
+            metrics.orderPlaced(1);
+
+            return order;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.PROCESS_ORDER, start);
+        }
+    }
+
+    /**
+     * Process several order lines as one all-or-nothing order.
+     * Lines for the same product are merged and stock is reserved in ascending product id order,
+     * so two carts can never wait on each other. If any line cannot be reserved every hold is released, and if a
+     * product is deleted before its line is committed the lines already committed get their stock back.
+     */
+    public List<Order> processBatchOrder(BatchOrderDto batchOrderDto) {
+        long start = System.nanoTime();
+        try {
+            return placeBatch(batchOrderDto);
+        } finally {
+            metrics.record(InventoryMetrics.Operation.PROCESS_BATCH_ORDER, start);
+        }
+    }
+
+    private List<Order> placeBatch(BatchOrderDto batchOrderDto) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderDto line : batchOrderDto.getItems()) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
         }
 
-        Product product = productOpt.get();
-        
-        if (product.getQuantity() < orderDto.getQuantity()) {
-            throw new IllegalArgumentException("Insufficient stock. Available: " + product.getQuantity() + ", Requested: " + orderDto.getQuantity());
+        List<Product> products = new ArrayList<>(quantities.size());
+        List<StockReservation> reservations = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+                Product product = productService.getProductById(line.getKey()).orElse(null);
+                if (product == null) {
+                    metrics.orderRejected(InventoryMetrics.OrderRejection.PRODUCT_NOT_FOUND);
+                    throw new IllegalArgumentException("Product not found with ID: " + line.getKey());
+                }
+                products.add(product);
+                reservations.add(reserve(product.getId(), line.getValue()));
+            }
+        } catch (RuntimeException e) {
+            reservations.forEach(stockEngine::release);
+            throw e;
         }
 
-        // Create order
-        Order order = new Order(
-            orderIdGenerator.getAndIncrement(),
-            product.getId(),
-            product.getName(),
-            orderDto.getQuantity(),
-            LocalDateTime.now()
-        );
-        orders.add(order);
+        commitAll(reservations);
 
+        LocalDateTime now = LocalDateTime.now();
+        List<Order> batch = new ArrayList<>(reservations.size());
+        List<LoggingService.Operation> operations = new ArrayList<>(reservations.size());
+        for (int i = 0; i < reservations.size(); i++) {
+            Product product = products.get(i);
+            StockReservation reservation = reservations.get(i);
+            productService.syncQuantity(product.getId());
+
+            batch.add(new Order(
+                orderIdGenerator.nextId(),
+                product.getId(),
+                product.getName(),
+                reservation.getQuantity(),
+                now
+            ));
+            operations.add(new LoggingService.Operation("ORDER", product.getId(), product.getName(), reservation.getQuantity()));
+        }
+        batch.forEach(writeAheadLog::appendOrder);
+        batch.forEach(changeLog::orderPlaced);
+        for (Order order : batch) {
+            orderStore.add(order);
+            publish(order);
+        }
 
-        int newQuantity = product.getQuantity() - orderDto.getQuantity();
-        product.setQuantity(newQuantity);
-        product.setLowStock(newQuantity < 5);
-        product.setUpdatedAt(LocalDateTime.now());
+        // Log the whole batch with a single write
+        loggingService.logOperations(operations);
+        metrics.orderPlaced(batch.size());
 
-        // Log the order
-        loggingService.logOperation("ORDER", product.getId(), product.getName(), orderDto.getQuantity());
+        return batch;
+    }
 
-        return order;
+    /**
+     * Commit every reservation before any stored quantity is synced, so a failure leaves nothing to take back there
+     */
+    private void commitAll(List<StockReservation> reservations) {
+        int committed = 0;
+        try {
+            for (; committed < reservations.size(); committed++) {
+                stockEngine.commit(reservations.get(committed));
+            }
+        } catch (RuntimeException e) {
+            // The product was deleted since it was reserved
+            for (int i = committed; i < reservations.size(); i++) {
+                stockEngine.release(reservations.get(i));
+            }
+            for (int i = 0; i < committed; i++) {
+                stockEngine.uncommit(reservations.get(i));
+                // An order of the same product may have synced the committed quantity meanwhile
+                productService.syncQuantity(reservations.get(i).getProductId());
+            }
+            throw e;
+        }
     }
 
-    public List<Order> getAllOrders() {
-        return new ArrayList<>(orders);
+    private StockReservation reserve(long productId, int quantity) {
+        try {
+            return stockEngine.reserve(productId, quantity);
+        } catch (UnknownProductException e) {
+            // Looked up just before, so deleted since
+            metrics.orderRejected(InventoryMetrics.OrderRejection.PRODUCT_NOT_FOUND);
+            throw e;
+        } catch (StockConflictException e) {
+            metrics.orderRejected(InventoryMetrics.OrderRejection.INSUFFICIENT_STOCK);
+            throw e;
+        }
+    }
+
+    /**
+     * Every order by order date then id, read lazily segment by segment
+     */
+    public Stream<Order> streamOrders() {
+        return orderStore.scan();
+    }
+
+    public OrderPage findOrders(OrderQuery query) {
+        return orderStore.find(query);
+    }
+
+    /**
+     * Orders not yet archived by the order store, the ones a snapshot has to hold
+     */
+    public List<Order> getUnarchivedOrders() {
+        return orderStore.findUnarchived();
     }
 
     public Optional<Order> getOrderById(Long id) {
-        return orders.stream().filter(o -> o.getId().equals(id)).findFirst();
+        return orderStore.findById(id);
+    }
+
+    /**
+     * Id the next order will get
+     */
+    public long getNextOrderId() {
+        return orderIdGenerator.peekNextId();
+    }
+
+    /**
+     * Put back an order read from a snapshot or the write-ahead log, without logging it again
+     */
+    public void restoreOrder(Order order) {
+        orderStore.add(order);
+        orderIdGenerator.skipPast(order.getId());
+        publish(order);
+    }
+
+    public void restoreNextOrderId(long nextId) {
+        orderIdGenerator.restoreNextId(nextId);
+    }
+
+    private void publish(Order order) {
+        for (OrderListener listener : orderListeners) {
+            listener.onOrderPlaced(order);
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,203 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.dto.ProductPage;
+import com.checkpoint.productmanagement.dto.ProductQuery;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.store.ProductStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Paginated and filtered product listings.
+ * Id ordered pages use keyset pagination directly on the store indexes and stop after one page.
+ * Name and price ordered pages walk the matching products once and keep only the best
+ * {@code limit} entries after the cursor in a bounded heap, so no listing copies the catalog.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductQueryService {
+    private static final int MAX_LIMIT = 1000;
+
+    private final ProductStore productStore;
+
+    public ProductPage findProducts(ProductQuery query) {
+        if (query.getLimit() < 1 || query.getLimit() > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        Cursor cursor = query.getCursor() == null ? null : Cursor.decode(query.getCursor(), query.getSort());
+        return query.getSort() == ProductQuery.SortField.ID
+                ? findById(query, cursor)
+                : findSorted(query, cursor);
+    }
+
+    /**
+     * All products matching the filters in id order, read lazily from the store
+     */
+    public Stream<Product> streamProducts(ProductQuery query) {
+        return source(query, null).filter(filters(query));
+    }
+
+    /**
+     * The products a page covers: those matching the filters that sort after the page's cursor and, unless
+     * it is the last page, not after its last item. A product whose state before or after a change is in
+     * the window changes the page; no other product can.
+     */
+    public Predicate<Product> window(ProductQuery query, ProductPage page) {
+        Comparator<Product> order = comparator(query);
+        Product after = query.getCursor() == null ? null
+                : Cursor.decode(query.getCursor(), query.getSort()).toProbe(query.getSort());
+        Product last = page.getNextCursor() == null ? null : page.getItems().get(page.getItems().size() - 1);
+        String category = query.getCategory();
+        return filters(query)
+                .and(product -> category == null || category.equals(product.getCategory()))
+                .and(product -> after == null || order.compare(product, after) > 0)
+                .and(product -> last == null || order.compare(product, last) <= 0);
+    }
+
+    private ProductPage findById(ProductQuery query, Cursor cursor) {
+        Long afterId = cursor == null ? null : cursor.getId();
+        List<Product> items = new ArrayList<>(query.getLimit() + 1);
+        source(query, afterId)
+                .filter(filters(query))
+                .limit(query.getLimit() + 1)
+                .forEach(items::add);
+        return page(query, items);
+    }
+
+    private ProductPage findSorted(ProductQuery query, Cursor cursor) {
+        Comparator<Product> order = comparator(query);
+        Product probe = cursor == null ? null : cursor.toProbe(query.getSort());
+        Predicate<Product> afterCursor = probe == null
+                ? product -> true
+                : product -> order.compare(product, probe) > 0;
+
+        // Max-heap on the page order: the head is the worst entry kept so far
+        int keep = query.getLimit() + 1;
+        PriorityQueue<Product> best = new PriorityQueue<>(keep, order.reversed());
+        source(query, null)
+                .filter(filters(query))
+                .filter(afterCursor)
+                .forEach(product -> {
+                    if (best.size() < keep) {
+                        best.add(product);
+                    } else if (order.compare(product, best.peek()) < 0) {
+                        best.poll();
+                        best.add(product);
+                    }
+                });
+
+        List<Product> items = new ArrayList<>(best);
+        items.sort(order);
+        return page(query, items);
+    }
+
+    private ProductPage page(ProductQuery query, List<Product> items) {
+        if (items.size() <= query.getLimit()) {
+            return new ProductPage(items, null);
+        }
+        List<Product> pageItems = new ArrayList<>(items.subList(0, query.getLimit()));
+        Product last = pageItems.get(pageItems.size() - 1);
+        return new ProductPage(pageItems, Cursor.of(query.getSort(), last).encode());
+    }
+
+    private Stream<Product> source(ProductQuery query, Long afterId) {
+        if (query.getCategory() != null) {
+            return productStore.scanCategory(query.getCategory(), afterId, query.isDescending());
+        }
+        if (Boolean.TRUE.equals(query.getLowStock())) {
+            return productStore.scanLowStock(afterId, query.isDescending());
+        }
+        return productStore.scan(afterId, query.isDescending());
+    }
+
+    private Predicate<Product> filters(ProductQuery query) {
+        Predicate<Product> filter = product -> true;
+        if (query.getMinPrice() != null) {
+            filter = filter.and(product -> product.getPrice().compareTo(query.getMinPrice()) >= 0);
+        }
+        if (query.getMaxPrice() != null) {
+            filter = filter.and(product -> product.getPrice().compareTo(query.getMaxPrice()) <= 0);
+        }
+        if (query.getLowStock() != null) {
+            boolean lowStock = query.getLowStock();
+            filter = filter.and(product -> product.isLowStock() == lowStock);
+        }
+        return filter;
+    }
+
+    private Comparator<Product> comparator(ProductQuery query) {
+        Comparator<Product> order = switch (query.getSort()) {
+            case NAME -> Comparator.comparing(Product::getName);
+            case PRICE -> Comparator.comparing(Product::getPrice);
+            case ID -> Comparator.comparing(Product::getId);
+        };
+        order = order.thenComparing(Product::getId);
+        return query.isDescending() ? order.reversed() : order;
+    }
+
+    /**
+     * Position after the last product of a page: its sort key and id, Base64 encoded
+     */
+    private static class Cursor {
+        private final String key;
+        private final long id;
+
+        private Cursor(String key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        static Cursor of(ProductQuery.SortField sort, Product product) {
+            String key = switch (sort) {
+                case NAME -> product.getName();
+                case PRICE -> product.getPrice().toPlainString();
+                case ID -> "";
+            };
+            return new Cursor(key, product.getId());
+        }
+
+        static Cursor decode(String value, ProductQuery.SortField sort) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                Cursor cursor = new Cursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+                if (sort == ProductQuery.SortField.PRICE) {
+                    new BigDecimal(cursor.key);
+                }
+                return cursor;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((id + ":" + key).getBytes(StandardCharsets.UTF_8));
+        }
+
+        long getId() {
+            return id;
+        }
+
+        Product toProbe(ProductQuery.SortField sort) {
+            Product probe = new Product();
+            probe.setId(id);
+            switch (sort) {
+                case NAME -> probe.setName(key);
+                case PRICE -> probe.setPrice(new BigDecimal(key));
+                case ID -> { }
+            }
+            return probe;
+        }
+    }
+}
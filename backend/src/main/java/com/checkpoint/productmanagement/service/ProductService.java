@@ -1,93 +1,429 @@
 package com.checkpoint.productmanagement.service;
 
+import com.checkpoint.productmanagement.changes.ChangeLog;
+import com.checkpoint.productmanagement.cluster.IdGenerator;
 import com.checkpoint.productmanagement.dto.ProductDto;
 import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import com.checkpoint.productmanagement.metrics.InventoryMetrics;
+import com.checkpoint.productmanagement.persistence.WriteAheadLog;
+import com.checkpoint.productmanagement.stock.StockConflictException;
+import com.checkpoint.productmanagement.stock.StockEngine;
+import com.checkpoint.productmanagement.store.ProductStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
-    private final List<Product> products = new ArrayList<>();
-    private final AtomicLong idGenerator = new AtomicLong(1);
+    // Snowflake ids vary mostly in their middle bits, so ids are hashed onto the stripes
+    private static final int WRITE_LOCK_BITS = 10;
+
+    private final ProductStore productStore;
+    private final IdGenerator productIdGenerator;
     private final LoggingService loggingService;
+    private final StockEngine stockEngine;
+    private final WriteAheadLog writeAheadLog;
+    private final ChangeLog changeLog;
+    private final LowStockPolicy lowStockPolicy;
+    private final List<ProductChangeListener> changeListeners;
+    private final InventoryMetrics metrics;
+    private final ReentrantLock[] writeLocks = newWriteLocks();
 
     public Product createProduct(ProductDto productDto) {
-        Product product = new Product(
-                idGenerator.getAndIncrement(),
-                productDto.getName(),
-                productDto.getCategory(),
-                productDto.getPrice(),
-                productDto.getQuantity(),
-                productDto.getQuantity() < 5,
-                LocalDateTime.now(),
-                LocalDateTime.now()
-        );
-        products.add(product);
-        loggingService.logOperation("CREATE_PRODUCT", product.getId(), product.getName(), product.getQuantity());
-        return product;
+        long start = System.nanoTime();
+        try {
+            Product product = insert(productDto, LocalDateTime.now());
+            publish(ProductChange.created(product));
+            loggingService.logOperation("CREATE_PRODUCT", product.getId(), product.getName(), product.getQuantity());
+            return product;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.CREATE_PRODUCT, start);
+        }
     }
 
-    public List<Product> getAllProducts() {
-        updateLowStockForExistingProducts();
-
-        return new ArrayList<>(products);
+    /**
+     * Create many products with one timestamp, one grouped log write and one notification of listeners
+     */
+    public List<Product> createProducts(List<ProductDto> productDtos) {
+        return createProducts(productDtos, null);
     }
 
-    private void updateLowStockForExistingProducts() {
-        products.forEach(product -> {
-            if (product.getQuantity() < 5 && !product.isLowStock()) {
-                product.setLowStock(true);
-            } else if (product.getQuantity() >= 5 && product.isLowStock()) {
-                product.setLowStock(false);
+    /**
+     * Create many products like {@link #createProducts(List)}, but a product that cannot be written does not
+     * stop the ones after it: it is left out of the result, with the reason put in {@code refused} under its
+     * position. Without {@code refused} the failure is thrown.
+     */
+    public List<Product> createProducts(List<ProductDto> productDtos, Map<Integer, String> refused) {
+        long start = System.nanoTime();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Product> created = new ArrayList<>(productDtos.size());
+            List<ProductChange> changes = new ArrayList<>(productDtos.size());
+            List<LoggingService.Operation> operations = new ArrayList<>(productDtos.size());
+            for (int i = 0; i < productDtos.size(); i++) {
+                Product product;
+                try {
+                    product = insert(productDtos.get(i), now);
+                } catch (RuntimeException e) {
+                    if (refused == null) {
+                        throw e;
+                    }
+                    refused.put(i, e.getMessage());
+                    continue;
+                }
+                created.add(product);
+                changes.add(ProductChange.created(product));
+                operations.add(new LoggingService.Operation("CREATE_PRODUCT", product.getId(), product.getName(), product.getQuantity()));
             }
-        });
+            publish(changes);
+            loggingService.logOperations(operations);
+            return created;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.CREATE_PRODUCTS, start);
+        }
+    }
+
+    public List<Product> getAllProducts() {
+        long start = System.nanoTime();
+        try {
+            return productStore.findAll();
+        } finally {
+            metrics.record(InventoryMetrics.Operation.LIST_PRODUCTS, start);
+        }
     }
 
     public Optional<Product> getProductById(Long id) {
-        return products.stream().filter(p -> p.getId().equals(id)).findFirst();
+        long start = System.nanoTime();
+        try {
+            return productStore.findById(id);
+        } finally {
+            metrics.record(InventoryMetrics.Operation.GET_PRODUCT, start);
+        }
     }
 
     public Optional<Product> updateProduct(Long id, ProductDto productDto) {
-        Optional<Product> opt = getProductById(id);
-        if (opt.isPresent()) {
-            Product product = opt.get();
-            product.setName(productDto.getName());
-            product.setCategory(productDto.getCategory());
-            product.setPrice(productDto.getPrice());
-            product.setQuantity(productDto.getQuantity());
-            product.setLowStock(productDto.getQuantity() < 5);
-            product.setUpdatedAt(LocalDateTime.now());
-            loggingService.logOperation("UPDATE_PRODUCT", product.getId(), product.getName(), product.getQuantity());
-            return Optional.of(product);
+        long start = System.nanoTime();
+        try {
+            Optional<ProductChange> change = replace(id, productDto, LocalDateTime.now());
+            change.ifPresent(this::publish);
+            Optional<Product> updated = change.map(ProductChange::getAfter);
+            updated.ifPresent(product ->
+                    loggingService.logOperation("UPDATE_PRODUCT", product.getId(), product.getName(), product.getQuantity()));
+            return updated;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.UPDATE_PRODUCT, start);
         }
-        return Optional.empty();
+    }
+
+    /**
+     * Copy the on-hand quantity from the stock engine into the stored product.
+     * The engine is read under the product's write lock, so the last sync always wins with the latest value.
+     * Only the quantity fields are written to the store, which every order goes through.
+     */
+    public Optional<Product> syncQuantity(Long id) {
+        LocalDateTime now = LocalDateTime.now();
+        return modify(id, current -> {
+            int quantity = stockEngine.getOnHand(id);
+            return current.toBuilder()
+                    .quantity(quantity)
+                    .isLowStock(lowStockPolicy.isLowStock(current.getCategory(), quantity))
+                    .updatedAt(now)
+                    .build();
+        }, product -> productStore.updateQuantity(id, product.getQuantity(), product.isLowStock(), now)
+                ? Optional.of(product)
+                : Optional.empty());
     }
 
     public boolean deleteProduct(Long id) {
-        Optional<Product> productOpt = getProductById(id);
-        boolean removed = products.removeIf(p -> p.getId().equals(id));
-        if (removed && productOpt.isPresent()) {
-            Product product = productOpt.get();
-            loggingService.logOperation("DELETE_PRODUCT", product.getId(), product.getName(), product.getQuantity());
+        long start = System.nanoTime();
+        try {
+            Optional<Product> removed = remove(id);
+            removed.ifPresent(product -> {
+                publish(ProductChange.deleted(product));
+                loggingService.logOperation("DELETE_PRODUCT", product.getId(), product.getName(), product.getQuantity());
+            });
+            return removed.isPresent();
+        } finally {
+            metrics.record(InventoryMetrics.Operation.DELETE_PRODUCT, start);
+        }
+    }
+
+    /**
+     * Replace many products, each with the id of its DTO, with one timestamp, one grouped log write and one
+     * notification of listeners. The result holds the updated product or empty for an unknown id, in order.
+     * An item whose quantity is below the stock reserved for its product is left out and empty in the result,
+     * with the reason put in {@code refused} under its position.
+     */
+    public List<Optional<Product>> updateProducts(List<ProductDto> productDtos, Map<Integer, String> refused) {
+        long start = System.nanoTime();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Optional<Product>> updated = new ArrayList<>(productDtos.size());
+            List<ProductChange> changes = new ArrayList<>(productDtos.size());
+            List<LoggingService.Operation> operations = new ArrayList<>(productDtos.size());
+            for (int i = 0; i < productDtos.size(); i++) {
+                ProductDto productDto = productDtos.get(i);
+                Optional<ProductChange> change;
+                try {
+                    change = replace(productDto.getId(), productDto, now);
+                } catch (StockConflictException e) {
+                    refused.put(i, e.getMessage());
+                    change = Optional.empty();
+                }
+                updated.add(change.map(ProductChange::getAfter));
+                change.ifPresent(changed -> {
+                    Product product = changed.getAfter();
+                    changes.add(changed);
+                    operations.add(new LoggingService.Operation("UPDATE_PRODUCT", product.getId(), product.getName(), product.getQuantity()));
+                });
+            }
+            publish(changes);
+            loggingService.logOperations(operations);
+            return updated;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.UPDATE_PRODUCTS, start);
+        }
+    }
+
+    /**
+     * Delete many products with one grouped log write and one notification of listeners.
+     * The result holds the deleted product or empty for an unknown id, in order.
+     */
+    public List<Optional<Product>> deleteProducts(List<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            List<Optional<Product>> deleted = new ArrayList<>(ids.size());
+            List<ProductChange> changes = new ArrayList<>(ids.size());
+            List<LoggingService.Operation> operations = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Optional<Product> removed = remove(id);
+                deleted.add(removed);
+                removed.ifPresent(product -> {
+                    changes.add(ProductChange.deleted(product));
+                    operations.add(new LoggingService.Operation("DELETE_PRODUCT", product.getId(), product.getName(), product.getQuantity()));
+                });
+            }
+            publish(changes);
+            loggingService.logOperations(operations);
+            return deleted;
+        } finally {
+            metrics.record(InventoryMetrics.Operation.DELETE_PRODUCTS, start);
         }
-        return removed;
     }
 
     public List<Product> getLowStockProducts() {
-        List<Product> lowStock = products.stream()
-                .filter(Product::isLowStock)
-                .collect(Collectors.toList());
-        return lowStock;
+        long start = System.nanoTime();
+        try {
+            return productStore.findLowStock();
+        } finally {
+            metrics.record(InventoryMetrics.Operation.LOW_STOCK_PRODUCTS, start);
+        }
     }
 
 
     public int getOperationCounter() {
         return loggingService.getPendingOperationsCount();
     }
-} 
\ No newline at end of file
+
+    /**
+     * Id the next created product will get
+     */
+    public long getNextProductId() {
+        return productIdGenerator.peekNextId();
+    }
+
+    /**
+     * Put back a product read from a snapshot or the write-ahead log, without logging it again.
+     * The low-stock flag is recomputed, as thresholds may have changed since it was written.
+     */
+    public void restoreProduct(Product product) {
+        product.setLowStock(lowStockPolicy.isLowStock(product.getCategory(), product.getQuantity()));
+        Optional<Product> before = productStore.findById(product.getId());
+        Product saved = productStore.save(product);
+        stockEngine.register(product.getId(), product.getQuantity());
+        productIdGenerator.skipPast(product.getId());
+        publish(before.map(previous -> ProductChange.updated(previous, saved))
+                .orElseGet(() -> ProductChange.created(saved)));
+    }
+
+    /**
+     * Register the products the store kept from its last run with the stock engine and the listeners, as if they
+     * had been read from a snapshot. The low-stock flag is recomputed the same way.
+     */
+    public void restoreKeptProducts() {
+        productStore.scan(null, false).forEach(product -> {
+            boolean lowStock = lowStockPolicy.isLowStock(product.getCategory(), product.getQuantity());
+            if (lowStock != product.isLowStock()) {
+                product.setLowStock(lowStock);
+                productStore.save(product);
+            }
+            stockEngine.register(product.getId(), product.getQuantity());
+            productIdGenerator.skipPast(product.getId());
+            publish(ProductChange.created(product));
+        });
+    }
+
+    public void restoreDeletion(long id) {
+        Optional<Product> removed = productStore.delete(id);
+        stockEngine.remove(id);
+        productIdGenerator.skipPast(id);
+        removed.ifPresent(product -> publish(ProductChange.deleted(product)));
+    }
+
+    public void restoreNextProductId(long nextId) {
+        productIdGenerator.restoreNextId(nextId);
+    }
+
+    private Product insert(ProductDto productDto, LocalDateTime now) {
+        Product product = new Product(
+                productIdGenerator.nextId(),
+                productDto.getName(),
+                productDto.getCategory(),
+                productDto.getPrice(),
+                productDto.getQuantity(),
+                lowStockPolicy.isLowStock(productDto.getCategory(), productDto.getQuantity()),
+                now,
+                now
+        );
+        ReentrantLock lock = writeLock(product.getId());
+        lock.lock();
+        try {
+            writeAheadLog.appendProductUpsert(product);
+            stockEngine.register(product.getId(), product.getQuantity());
+            Product saved;
+            try {
+                saved = productStore.save(product);
+            } catch (RuntimeException e) {
+                // Refused by the store, e.g. an id the mapped store cannot address: take back what was written ahead
+                writeAheadLog.appendProductDelete(product.getId());
+                stockEngine.remove(product.getId());
+                throw e;
+            }
+            // Recorded once readable, so a consumer reacting to the event can fetch the product
+            changeLog.productCreated(saved);
+            return saved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delete a product, write it ahead to the WAL and record it in the change log, without notifying listeners
+     */
+    private Optional<Product> remove(Long id) {
+        ReentrantLock lock = writeLock(id);
+        lock.lock();
+        try {
+            Optional<Product> removed = productStore.delete(id);
+            removed.ifPresent(product -> {
+                writeAheadLog.appendProductDelete(product.getId());
+                stockEngine.remove(product.getId());
+                changeLog.productDeleted(product.getId());
+            });
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace name, category, price and quantity of a product, without notifying listeners
+     */
+    private Optional<ProductChange> replace(Long id, ProductDto productDto, LocalDateTime now) {
+        if (id == null || !stockEngine.setOnHand(id, productDto.getQuantity())) {
+            return Optional.empty();
+        }
+        return change(id, current -> {
+            int quantity = stockEngine.getOnHand(id);
+            return current.toBuilder()
+                    .name(productDto.getName())
+                    .category(productDto.getCategory())
+                    .price(productDto.getPrice())
+                    .quantity(quantity)
+                    .isLowStock(lowStockPolicy.isLowStock(productDto.getCategory(), quantity))
+                    .updatedAt(now)
+                    .build();
+        });
+    }
+
+    /**
+     * Apply an update in the store, write it ahead to the WAL while the product is locked and notify listeners
+     */
+    private Optional<Product> modify(Long id, UnaryOperator<Product> updater,
+                                     Function<Product, Optional<Product>> store) {
+        Optional<ProductChange> change = change(id, updater, store);
+        change.ifPresent(this::publish);
+        return change.map(ProductChange::getAfter);
+    }
+
+    /**
+     * Apply an update in the store, write it ahead to the WAL and record it in the change log
+     */
+    private Optional<ProductChange> change(Long id, UnaryOperator<Product> updater) {
+        return change(id, updater, product -> productStore.update(id, current -> product));
+    }
+
+    /**
+     * Like {@link #change(Long, UnaryOperator)}, with {@code store} putting the updated product in the store and
+     * returning it as stored, or empty if it is gone
+     */
+    private Optional<ProductChange> change(Long id, UnaryOperator<Product> updater,
+                                           Function<Product, Optional<Product>> store) {
+        ReentrantLock lock = writeLock(id);
+        lock.lock();
+        try {
+            // Every write of this product holds the lock, so the product read here is still current when it is
+            // replaced, and the WAL append stays out of the store's own locking
+            Optional<Product> before = productStore.findById(id);
+            if (before.isEmpty()) {
+                return Optional.empty();
+            }
+            Product product = updater.apply(before.get());
+            writeAheadLog.appendProductUpsert(product);
+            Optional<Product> updated = store.apply(product);
+            updated.ifPresent(changeLog::productUpdated);
+            return updated.map(after -> ProductChange.updated(before.get(), after));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lock serializing the writes of one product, so they reach the store, the WAL and the change log in the
+     * same order. Held across the store write, unlike the store's own locking.
+     */
+    private ReentrantLock writeLock(long id) {
+        return writeLocks[(int) ((id * 0x9E3779B97F4A7C15L) >>> (64 - WRITE_LOCK_BITS))];
+    }
+
+    private static ReentrantLock[] newWriteLocks() {
+        ReentrantLock[] locks = new ReentrantLock[1 << WRITE_LOCK_BITS];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private void publish(ProductChange change) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onProductChange(change);
+        }
+    }
+
+    private void publish(List<ProductChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onProductChanges(changes);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.cache.IdempotencyCache;
+import com.checkpoint.productmanagement.dto.BatchOrderDto;
+import com.checkpoint.productmanagement.dto.OrderDto;
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
+import com.checkpoint.productmanagement.entity.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Order operations for the reactive API.
+ * Placing orders writes to the write-ahead log, and reads may load an archived segment from disk,
+ * so everything here runs on the io scheduler. Orders sent with an idempotency key go through the
+ * {@link IdempotencyCache} as in the servlet API.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveOrderService {
+    private final OrderService orderService;
+    private final IdempotencyCache idempotencyCache;
+    private final Scheduler reactiveIoScheduler;
+
+    /**
+     * Place an order, or with a non-null {@code idempotencyKey} replay the order already placed for that key
+     */
+    public Mono<IdempotencyCache.Outcome<Order>> processOrder(OrderDto orderDto, String idempotencyKey) {
+        return placeOnce("order", idempotencyKey, orderDto, () -> orderService.processOrder(orderDto));
+    }
+
+    public Mono<IdempotencyCache.Outcome<List<Order>>> processBatchOrder(BatchOrderDto batchOrderDto,
+                                                                         String idempotencyKey) {
+        return placeOnce("batch", idempotencyKey, batchOrderDto, () -> orderService.processBatchOrder(batchOrderDto));
+    }
+
+    /**
+     * Every order by order date then id, read segment by segment as the client takes them
+     */
+    public Flux<Order> streamOrders() {
+        return Flux.fromStream(orderService::streamOrders)
+                .subscribeOn(reactiveIoScheduler);
+    }
+
+    public Mono<OrderPage> findOrders(OrderQuery query) {
+        return Mono.fromCallable(() -> orderService.findOrders(query))
+                .subscribeOn(reactiveIoScheduler);
+    }
+
+    public Mono<Order> getOrderById(Long id) {
+        return Mono.fromCallable(() -> orderService.getOrderById(id).orElse(null))
+                .subscribeOn(reactiveIoScheduler);
+    }
+
+    private <T> Mono<IdempotencyCache.Outcome<T>> placeOnce(String scope, String key, Object request, Supplier<T> place) {
+        return Mono.fromCallable(() -> key == null
+                        ? new IdempotencyCache.Outcome<>(place.get(), false)
+                        : idempotencyCache.execute(scope, key, request, place))
+                .subscribeOn(reactiveIoScheduler);
+    }
+}
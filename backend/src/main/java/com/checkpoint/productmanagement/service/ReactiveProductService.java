@@ -0,0 +1,60 @@
+package com.checkpoint.productmanagement.service;
+
+import com.checkpoint.productmanagement.dto.ProductDto;
+import com.checkpoint.productmanagement.dto.ProductQuery;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.search.ProductSearchIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.List;
+
+/**
+ * Product operations for the reactive API.
+ * Reads only touch the in-memory store and run on the subscribing thread. Writes append to the write-ahead
+ * log and the operations journal, which can block on a sync or a full buffer, so they run on the io scheduler.
+ * Lists are read lazily from the store as the client takes them.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveProductService {
+    private final ProductService productService;
+    private final ProductQueryService productQueryService;
+    private final ProductSearchIndex searchIndex;
+    private final Scheduler reactiveIoScheduler;
+
+    public Flux<Product> streamProducts(ProductQuery query) {
+        return Flux.fromStream(() -> productQueryService.streamProducts(query));
+    }
+
+    public Flux<Product> getLowStockProducts() {
+        return Flux.defer(() -> Flux.fromIterable(productService.getLowStockProducts()));
+    }
+
+    public Mono<List<Product>> search(String query, int limit) {
+        return Mono.fromCallable(() -> searchIndex.search(query, limit));
+    }
+
+    public Mono<Product> createProduct(ProductDto productDto) {
+        return Mono.fromCallable(() -> productService.createProduct(productDto))
+                .subscribeOn(reactiveIoScheduler);
+    }
+
+    /**
+     * The updated product, or empty when there is none with this id
+     */
+    public Mono<Product> updateProduct(Long id, ProductDto productDto) {
+        return Mono.fromCallable(() -> productService.updateProduct(id, productDto).orElse(null))
+                .subscribeOn(reactiveIoScheduler);
+    }
+
+    public Mono<Boolean> deleteProduct(Long id) {
+        return Mono.fromCallable(() -> productService.deleteProduct(id))
+                .subscribeOn(reactiveIoScheduler);
+    }
+}
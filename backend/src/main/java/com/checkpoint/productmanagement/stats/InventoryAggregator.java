@@ -0,0 +1,75 @@
+package com.checkpoint.productmanagement.stats;
+
+import com.checkpoint.productmanagement.dto.InventoryStats;
+import com.checkpoint.productmanagement.entity.Product;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running inventory totals per category, kept up to date from product writes.
+ * Each write takes the product's old state out of its category and adds the new one. Additions commute,
+ * so writes to the same product may be applied in any order and the totals still end up exact.
+ */
+@Component
+public class InventoryAggregator implements ProductChangeListener {
+    private final ConcurrentMap<String, CategoryTotals> categories = new ConcurrentHashMap<>();
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        if (change.getBefore() != null) {
+            apply(change.getBefore(), -1);
+        }
+        if (change.getAfter() != null) {
+            apply(change.getAfter(), 1);
+        }
+    }
+
+    public Optional<InventoryStats> getCategoryStats(String category) {
+        CategoryTotals totals = categories.get(category);
+        return totals == null || totals.products.sum() == 0 ? Optional.empty() : Optional.of(totals.toStats());
+    }
+
+    /**
+     * Every category holding products, by name
+     */
+    public List<InventoryStats> getCategoryStats() {
+        return categories.values().stream()
+                .filter(totals -> totals.products.sum() > 0)
+                .map(CategoryTotals::toStats)
+                .sorted(Comparator.comparing(InventoryStats::getCategory))
+                .toList();
+    }
+
+    private void apply(Product product, int sign) {
+        CategoryTotals totals = categories.computeIfAbsent(product.getCategory(), CategoryTotals::new);
+        long cents = product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        totals.products.add(sign);
+        totals.units.add((long) sign * product.getQuantity());
+        totals.valueCents.add(sign * cents * product.getQuantity());
+    }
+
+    private static final class CategoryTotals {
+        final String category;
+        final LongAdder products = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder valueCents = new LongAdder();
+
+        CategoryTotals(String category) {
+            this.category = category;
+        }
+
+        InventoryStats toStats() {
+            return new InventoryStats(category, products.sum(), units.sum(), BigDecimal.valueOf(valueCents.sum(), 2));
+        }
+    }
+}
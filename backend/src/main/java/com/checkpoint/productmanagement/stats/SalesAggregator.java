@@ -0,0 +1,123 @@
+package com.checkpoint.productmanagement.stats;
+
+import com.checkpoint.productmanagement.dto.SalesStats;
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.event.OrderListener;
+import com.checkpoint.productmanagement.event.ProductChange;
+import com.checkpoint.productmanagement.event.ProductChangeListener;
+import com.checkpoint.productmanagement.store.ProductStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rolling sales counters per product, per category and overall, fed by every placed order.
+ * A query sums the one-minute slots of its window, so its cost does not depend on the order history.
+ * <p>
+ * A product's counters are dropped when it is deleted, and counters without a sale in the window are swept
+ * every minute, so only products and categories sold recently are held.
+ */
+@Component
+@EnableConfigurationProperties(StatsProperties.class)
+public class SalesAggregator implements OrderListener, ProductChangeListener {
+    private final StatsProperties properties;
+    private final ProductStore productStore;
+    private final ConcurrentMap<Long, SalesWindow> products = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SalesWindow> categories = new ConcurrentHashMap<>();
+    private final SalesWindow total;
+
+    public SalesAggregator(StatsProperties properties, ProductStore productStore) {
+        this.properties = properties;
+        this.productStore = productStore;
+        this.total = newWindow();
+    }
+
+    @Override
+    public void onOrderPlaced(Order order) {
+        long now = System.currentTimeMillis();
+        long placed = order.getOrderDate().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (placed <= now - properties.getWindowMinutes() * SalesWindow.SLOT_MILLIS) {
+            return;
+        }
+        int units = order.getQuantityOrdered();
+        total.record(placed, units, now);
+        record(products, order.getProductId(), placed, units, now);
+        // Orders only exist for existing products, a miss means the product was deleted since
+        productStore.findById(order.getProductId()).ifPresent(product ->
+                record(categories, product.getCategory(), placed, units, now));
+    }
+
+    @Override
+    public void onProductChange(ProductChange change) {
+        if (change.getType() == ProductChange.Type.DELETED) {
+            products.remove(change.getProductId());
+        }
+    }
+
+    @Scheduled(fixedRate = 60000)
+    public void removeIdleWindows() {
+        long now = System.currentTimeMillis();
+        products.values().removeIf(window -> window.isIdle(now));
+        categories.values().removeIf(window -> window.isIdle(now));
+    }
+
+    public SalesStats getTotalSales(int minutes) {
+        return stats(null, null, total, minutes);
+    }
+
+    public SalesStats getProductSales(long productId, int minutes) {
+        return stats(productId, null, products.get(productId), minutes);
+    }
+
+    public SalesStats getCategorySales(String category, int minutes) {
+        return stats(null, category, categories.get(category), minutes);
+    }
+
+    /**
+     * Categories with sales in the window, best selling first
+     */
+    public List<SalesStats> getCategorySales(int minutes) {
+        validate(minutes);
+        return categories.entrySet().stream()
+                .map(entry -> stats(null, entry.getKey(), entry.getValue(), minutes))
+                .filter(stats -> stats.getOrders() > 0)
+                .sorted(Comparator.comparingLong(SalesStats::getUnitsSold).reversed()
+                        .thenComparing(SalesStats::getCategory))
+                .toList();
+    }
+
+    private SalesStats stats(Long productId, String category, SalesWindow window, int minutes) {
+        validate(minutes);
+        long now = System.currentTimeMillis();
+        return window == null
+                ? new SalesStats(productId, category, minutes, 0, 0)
+                : new SalesStats(productId, category, minutes, window.units(now, minutes), window.orders(now, minutes));
+    }
+
+    private void validate(int minutes) {
+        if (minutes < 1 || minutes > properties.getWindowMinutes()) {
+            throw new IllegalArgumentException("Minutes must be between 1 and " + properties.getWindowMinutes());
+        }
+    }
+
+    private <K> void record(ConcurrentMap<K, SalesWindow> windows, K key, long placed, int units, long now) {
+        while (true) {
+            SalesWindow window = windows.computeIfAbsent(key, k -> newWindow());
+            window.record(placed, units, now);
+            // The window was swept or dropped meanwhile: count the order in the one now mapped
+            if (windows.get(key) == window) {
+                return;
+            }
+        }
+    }
+
+    private SalesWindow newWindow() {
+        return new SalesWindow(properties.getWindowMinutes());
+    }
+}
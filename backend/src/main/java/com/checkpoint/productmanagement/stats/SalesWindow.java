@@ -0,0 +1,94 @@
+package com.checkpoint.productmanagement.stats;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Units and orders counted in a ring of one-minute slots covering the last {@code slots} minutes.
+ * Writers add to striped {@link LongAdder}s and a slot is recycled with a compare-and-set once its minute
+ * has left the window, so neither recording nor reading takes a lock. Reading sums at most one slot per minute.
+ */
+final class SalesWindow {
+    static final long SLOT_MILLIS = 60_000;
+
+    private final AtomicReferenceArray<Slot> slots;
+
+    SalesWindow(int slots) {
+        this.slots = new AtomicReferenceArray<>(slots);
+    }
+
+    /**
+     * Count an order placed at {@code timeMillis}; orders already out of the window are ignored
+     */
+    void record(long timeMillis, long units, long nowMillis) {
+        long current = Math.floorDiv(nowMillis, SLOT_MILLIS);
+        long minute = Math.min(Math.floorDiv(timeMillis, SLOT_MILLIS), current);
+        if (minute <= current - slots.length()) {
+            return;
+        }
+        int index = Math.floorMod(minute, slots.length());
+        Slot slot = slots.get(index);
+        while (slot == null || slot.minute < minute) {
+            Slot fresh = new Slot(minute);
+            if (slots.compareAndSet(index, slot, fresh)) {
+                slot = fresh;
+                break;
+            }
+            slot = slots.get(index);
+        }
+        // A newer minute may have taken the slot, the order has then left the window
+        if (slot.minute == minute) {
+            slot.units.add(units);
+            slot.orders.increment();
+        }
+    }
+
+    /**
+     * True once no slot holds a minute of the window any more
+     */
+    boolean isIdle(long nowMillis) {
+        long oldest = Math.floorDiv(nowMillis, SLOT_MILLIS) - slots.length();
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.minute > oldest) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long units(long nowMillis, int minutes) {
+        return sum(nowMillis, minutes, slot -> slot.units.sum());
+    }
+
+    long orders(long nowMillis, int minutes) {
+        return sum(nowMillis, minutes, slot -> slot.orders.sum());
+    }
+
+    /**
+     * Sum over the slots of the last {@code minutes} minutes, the current one included
+     */
+    private long sum(long nowMillis, int minutes, ToLongFunction<Slot> value) {
+        long current = Math.floorDiv(nowMillis, SLOT_MILLIS);
+        long oldest = current - Math.min(minutes, slots.length());
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Slot slot = slots.get(i);
+            if (slot != null && slot.minute > oldest && slot.minute <= current) {
+                total += value.applyAsLong(slot);
+            }
+        }
+        return total;
+    }
+
+    private static final class Slot {
+        final long minute;
+        final LongAdder units = new LongAdder();
+        final LongAdder orders = new LongAdder();
+
+        Slot(long minute) {
+            this.minute = minute;
+        }
+    }
+}
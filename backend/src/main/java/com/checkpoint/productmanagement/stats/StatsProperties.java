@@ -0,0 +1,14 @@
+package com.checkpoint.productmanagement.stats;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the sales and inventory aggregation
+ */
+@Data
+@ConfigurationProperties(prefix = "stats")
+public class StatsProperties {
+    /** Longest sales window that can be queried, kept as one-minute slots */
+    private int windowMinutes = 60;
+}
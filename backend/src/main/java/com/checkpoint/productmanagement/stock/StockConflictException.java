@@ -0,0 +1,10 @@
+package com.checkpoint.productmanagement.stock;
+
+/**
+ * A stock write refused because of the stock held by orders in progress
+ */
+public class StockConflictException extends IllegalArgumentException {
+    public StockConflictException(String message) {
+        super(message);
+    }
+}
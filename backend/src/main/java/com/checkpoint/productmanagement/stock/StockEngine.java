@@ -0,0 +1,169 @@
+package com.checkpoint.productmanagement.stock;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free stock ledger.
+ * Each product has one {@link AtomicLong} packing the on-hand quantity (high 32 bits) and the
+ * reserved quantity (low 32 bits), so check-and-reserve is a single CAS and no order can take
+ * stock that another order already holds. Available stock is {@code onHand - reserved} and never
+ * goes below zero.
+ */
+@Component
+public class StockEngine {
+    private final ConcurrentMap<Long, AtomicLong> levels = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, StockReservation> reservations = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIdGenerator = new AtomicLong(1);
+
+    /**
+     * Start tracking a product with the given on-hand quantity
+     */
+    public void register(long productId, int quantity) {
+        levels.put(productId, new AtomicLong(pack(quantity, 0)));
+    }
+
+    public void remove(long productId) {
+        levels.remove(productId);
+    }
+
+    /**
+     * Replace the on-hand quantity of a product, keeping its reservations.
+     * Throws StockConflictException if the new quantity is below the reserved stock.
+     */
+    public boolean setOnHand(long productId, int quantity) {
+        AtomicLong level = levels.get(productId);
+        if (level == null) {
+            return false;
+        }
+        while (true) {
+            long state = level.get();
+            int reserved = reserved(state);
+            if (quantity < reserved) {
+                throw new StockConflictException("Quantity cannot be lower than reserved stock: " + reserved);
+            }
+            if (level.compareAndSet(state, pack(quantity, reserved))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Hold stock for a product. Throws UnknownProductException if the product is unknown and
+     * StockConflictException if not enough stock is available.
+     */
+    public StockReservation reserve(long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        AtomicLong level = level(productId);
+        while (true) {
+            long state = level.get();
+            int onHand = onHand(state);
+            int reserved = reserved(state);
+            if (onHand - reserved < quantity) {
+                throw new StockConflictException("Insufficient stock. Available: " + (onHand - reserved) + ", Requested: " + quantity);
+            }
+            if (level.compareAndSet(state, pack(onHand, reserved + quantity))) {
+                break;
+            }
+        }
+        StockReservation reservation = new StockReservation(reservationIdGenerator.getAndIncrement(), productId, quantity);
+        reservations.put(reservation.getId(), reservation);
+        return reservation;
+    }
+
+    /**
+     * Turn a reservation into a sale, removing the stock from hand.
+     * Returns the remaining on-hand quantity.
+     */
+    public int commit(StockReservation reservation) {
+        claim(reservation);
+        AtomicLong level = level(reservation.getProductId());
+        while (true) {
+            long state = level.get();
+            int onHand = onHand(state) - reservation.getQuantity();
+            if (level.compareAndSet(state, pack(onHand, reserved(state) - reservation.getQuantity()))) {
+                return onHand;
+            }
+        }
+    }
+
+    /**
+     * Put the stock of a committed reservation back on hand, when the order it belonged to failed after all.
+     * Does nothing if the product is no longer tracked.
+     */
+    public void uncommit(StockReservation reservation) {
+        AtomicLong level = levels.get(reservation.getProductId());
+        if (level == null) {
+            return;
+        }
+        while (true) {
+            long state = level.get();
+            if (level.compareAndSet(state, pack(onHand(state) + reservation.getQuantity(), reserved(state)))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Give reserved stock back. Releasing an already finished reservation does nothing.
+     */
+    public void release(StockReservation reservation) {
+        if (reservations.remove(reservation.getId()) == null) {
+            return;
+        }
+        AtomicLong level = levels.get(reservation.getProductId());
+        if (level == null) {
+            return;
+        }
+        while (true) {
+            long state = level.get();
+            if (level.compareAndSet(state, pack(onHand(state), reserved(state) - reservation.getQuantity()))) {
+                return;
+            }
+        }
+    }
+
+    public int getOnHand(long productId) {
+        return onHand(level(productId).get());
+    }
+
+    public int getAvailable(long productId) {
+        long state = level(productId).get();
+        return onHand(state) - reserved(state);
+    }
+
+    public int getActiveReservationCount() {
+        return reservations.size();
+    }
+
+    private void claim(StockReservation reservation) {
+        if (reservations.remove(reservation.getId()) == null) {
+            throw new IllegalStateException("Reservation " + reservation.getId() + " is not active");
+        }
+    }
+
+    private AtomicLong level(long productId) {
+        AtomicLong level = levels.get(productId);
+        if (level == null) {
+            throw new UnknownProductException(productId);
+        }
+        return level;
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int onHand(long state) {
+        return (int) (state >>> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+}
@@ -0,0 +1,13 @@
+package com.checkpoint.productmanagement.stock;
+
+import lombok.Value;
+
+/**
+ * Stock held for a product until it is committed or released
+ */
+@Value
+public class StockReservation {
+    long id;
+    long productId;
+    int quantity;
+}
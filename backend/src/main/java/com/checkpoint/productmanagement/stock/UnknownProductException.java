@@ -0,0 +1,10 @@
+package com.checkpoint.productmanagement.stock;
+
+/**
+ * A stock operation on a product the engine does not track, e.g. one deleted meanwhile
+ */
+public class UnknownProductException extends IllegalArgumentException {
+    public UnknownProductException(long productId) {
+        super("Product not found with ID: " + productId);
+    }
+}
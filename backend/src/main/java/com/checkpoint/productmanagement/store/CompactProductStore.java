@@ -0,0 +1,80 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Product;
+import lombok.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Heap based product store with a compact record per product ({@code product.store.type=compact}).
+ * Instead of a boxed id and quantity, a {@link BigDecimal} price, two {@link LocalDateTime} objects and
+ * a category string per row, a record holds primitives: the price as unscaled value and scale, the
+ * timestamps as epoch millis, the name as UTF-8 bytes and the category as a shared dictionary instance.
+ * That is about a third of the heap of a {@link Product}. {@link Product} stays the API view and is
+ * built on every read, so timestamps come back with millisecond precision.
+ */
+@Component
+@ConditionalOnProperty(name = "product.store.type", havingValue = "compact")
+public class CompactProductStore extends IndexedProductStore<CompactProductStore.CompactProduct> {
+    // Categories repeat across many rows, every record points at the same instance
+    private final ConcurrentMap<String, String> categories = new ConcurrentHashMap<>();
+
+    @Override
+    protected CompactProduct encode(Product product) {
+        BigDecimal price = product.getPrice();
+        return new CompactProduct(
+                product.getId(),
+                product.getName().getBytes(StandardCharsets.UTF_8),
+                categories.computeIfAbsent(product.getCategory(), category -> category),
+                price.unscaledValue().longValueExact(),
+                (byte) price.scale(),
+                product.getQuantity(),
+                product.isLowStock(),
+                Timestamps.toEpochMillis(product.getCreatedAt()),
+                Timestamps.toEpochMillis(product.getUpdatedAt())
+        );
+    }
+
+    @Override
+    protected Product decode(CompactProduct record) {
+        return new Product(
+                record.getId(),
+                new String(record.getName(), StandardCharsets.UTF_8),
+                record.getCategory(),
+                BigDecimal.valueOf(record.getPriceUnscaled(), record.getPriceScale()),
+                record.getQuantity(),
+                record.isLowStock(),
+                Timestamps.toDateTime(record.getCreatedAt()),
+                Timestamps.toDateTime(record.getUpdatedAt())
+        );
+    }
+
+    @Override
+    protected String categoryOf(CompactProduct record) {
+        return record.getCategory();
+    }
+
+    @Override
+    protected boolean isLowStock(CompactProduct record) {
+        return record.isLowStock();
+    }
+
+    @Value
+    static class CompactProduct {
+        long id;
+        byte[] name;
+        String category;
+        long priceUnscaled;
+        byte priceScale;
+        int quantity;
+        boolean lowStock;
+        long createdAt;
+        long updatedAt;
+    }
+}
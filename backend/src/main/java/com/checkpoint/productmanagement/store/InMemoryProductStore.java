@@ -0,0 +1,34 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Heap based product store that keeps the {@link Product} instances themselves.
+ * The default store ({@code product.store.type=heap}).
+ */
+@Component
+@ConditionalOnProperty(name = "product.store.type", havingValue = "heap", matchIfMissing = true)
+public class InMemoryProductStore extends IndexedProductStore<Product> {
+
+    @Override
+    protected Product encode(Product product) {
+        return product;
+    }
+
+    @Override
+    protected Product decode(Product record) {
+        return record;
+    }
+
+    @Override
+    protected String categoryOf(Product record) {
+        return record.getCategory();
+    }
+
+    @Override
+    protected boolean isLowStock(Product record) {
+        return record.isLowStock();
+    }
+}
@@ -0,0 +1,168 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Base of the heap based product stores.
+ * Records are kept in a concurrent primary map keyed by id. Every write goes through
+ * {@link ConcurrentMap#compute}, which locks only the bin of that id, and updates the
+ * secondary indexes (id order, category, low stock) from inside it so they never disagree
+ * with the primary map. Subclasses only choose how a {@link Product} is laid out in memory.
+ *
+ * @param <R> stored record type, treated as immutable: updates replace the instance
+ */
+public abstract class IndexedProductStore<R> implements ProductStore {
+    private final ConcurrentMap<Long, R> records = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Long> orderedIds = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, NavigableSet<Long>> categoryIndex = new ConcurrentHashMap<>();
+    private final NavigableSet<Long> lowStockIndex = new ConcurrentSkipListSet<>();
+
+    protected abstract R encode(Product product);
+
+    protected abstract Product decode(R record);
+
+    protected abstract String categoryOf(R record);
+
+    protected abstract boolean isLowStock(R record);
+
+    @Override
+    public Product save(Product product) {
+        Objects.requireNonNull(product.getId(), "Product id is required");
+        R record = encode(product);
+        records.compute(product.getId(), (id, previous) -> {
+            reindex(id, previous, record);
+            return record;
+        });
+        return decode(record);
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        R record = records.get(id);
+        return record == null ? Optional.empty() : Optional.of(decode(record));
+    }
+
+    @Override
+    public Optional<Product> update(Long id, UnaryOperator<Product> updater) {
+        R updated = records.computeIfPresent(id, (key, current) -> {
+            R record = encode(updater.apply(decode(current)));
+            reindex(key, current, record);
+            return record;
+        });
+        return updated == null ? Optional.empty() : Optional.of(decode(updated));
+    }
+
+    @Override
+    public Optional<Product> delete(Long id) {
+        List<R> removed = new ArrayList<>(1);
+        records.computeIfPresent(id, (key, current) -> {
+            reindex(key, current, null);
+            removed.add(current);
+            return null;
+        });
+        return removed.isEmpty() ? Optional.empty() : Optional.of(decode(removed.get(0)));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return resolve(orderedIds);
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        Set<Long> ids = categoryIndex.get(category);
+        return ids == null ? new ArrayList<>() : resolve(ids);
+    }
+
+    @Override
+    public Stream<Product> scan(Long afterId, boolean descending) {
+        return walk(orderedIds, afterId, descending);
+    }
+
+    @Override
+    public Stream<Product> scanCategory(String category, Long afterId, boolean descending) {
+        NavigableSet<Long> ids = categoryIndex.get(category);
+        return ids == null ? Stream.empty() : walk(ids, afterId, descending);
+    }
+
+    @Override
+    public Stream<Product> scanLowStock(Long afterId, boolean descending) {
+        return walk(lowStockIndex, afterId, descending);
+    }
+
+    @Override
+    public List<Product> findLowStock() {
+        return resolve(lowStockIndex);
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    // Called while holding the bin lock of the product id
+    private void reindex(Long id, R previous, R current) {
+        if (previous == null) {
+            orderedIds.add(id);
+        } else if (current == null) {
+            orderedIds.remove(id);
+        }
+
+        String previousCategory = previous == null ? null : categoryOf(previous);
+        String currentCategory = current == null ? null : categoryOf(current);
+        if (!Objects.equals(previousCategory, currentCategory)) {
+            if (previousCategory != null) {
+                categoryIndex.computeIfPresent(previousCategory, (category, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            if (currentCategory != null) {
+                categoryIndex.compute(currentCategory, (category, ids) -> {
+                    NavigableSet<Long> target = ids == null ? new ConcurrentSkipListSet<>() : ids;
+                    target.add(id);
+                    return target;
+                });
+            }
+        }
+
+        boolean wasLowStock = previous != null && isLowStock(previous);
+        boolean isLowStock = current != null && isLowStock(current);
+        if (wasLowStock && !isLowStock) {
+            lowStockIndex.remove(id);
+        } else if (!wasLowStock && isLowStock) {
+            lowStockIndex.add(id);
+        }
+    }
+
+    private Stream<Product> walk(NavigableSet<Long> ids, Long afterId, boolean descending) {
+        NavigableSet<Long> ordered = descending ? ids.descendingSet() : ids;
+        if (afterId != null) {
+            ordered = ordered.tailSet(afterId, false);
+        }
+        return ordered.stream().map(records::get).filter(Objects::nonNull).map(this::decode);
+    }
+
+    private List<Product> resolve(Set<Long> ids) {
+        List<Product> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            R record = records.get(id);
+            if (record != null) {
+                result.add(decode(record));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,663 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Off-heap product store backed by memory-mapped files ({@code product.store.type=mmap}).
+ * Every product id owns a fixed-width 64 byte slot in {@code products.slots}, so a lookup is an offset
+ * computation and never touches a map. Names and categories live in an append-only string arena,
+ * {@code products.strings}. The page cache holds the catalog and the heap only keeps the ids of low-stock
+ * products and one entry per distinct category, however many products there are.
+ * <p>
+ * Writers take a lock striped by id. Readers take no lock: each slot carries a version that is odd while
+ * the slot is being written, and a read is retried until it sees the same even version before and after.
+ * Scans walk the slots in id order, so category filters cost a pass over the slots instead of an index.
+ * <p>
+ * The write-ahead log and snapshots stay the durable copy of the catalog. A clean shutdown forces the mapped
+ * files to disk and writes a checkpoint naming the WAL segment they are current with; the next start reopens
+ * them and recovery only replays the WAL from that segment on. The checkpoint is deleted as soon as the files
+ * are opened, so after a crash, which may have torn a page, they start empty and are refilled from the snapshot.
+ */
+@Component
+@ConditionalOnProperty(name = "product.store.type", havingValue = "mmap")
+@EnableConfigurationProperties(MappedStoreProperties.class)
+@Slf4j
+public class MappedProductStore implements ProductStore {
+    private static final String SLOTS_FILE = "products.slots";
+    private static final String STRINGS_FILE = "products.strings";
+    private static final String CHECKPOINT_FILE = "products.checkpoint";
+    private static final int CHECKPOINT_MAGIC = 0x50534C54;
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final int SLOT_SIZE = 64;
+    private static final int VERSION = 0;
+    private static final int QUANTITY = 4;
+    private static final int ID = 8;
+    private static final int PRICE_UNSCALED = 16;
+    private static final int CREATED_AT = 24;
+    private static final int UPDATED_AT = 32;
+    private static final int NAME_REF = 40;
+    private static final int CATEGORY_REF = 48;
+    private static final int PRICE_SCALE = 56;
+    private static final int FLAGS = 57;
+
+    private static final byte LIVE = 1;
+    private static final byte LOW_STOCK = 2;
+    private static final long ANY_CATEGORY = -1;
+
+    private static final int REGION_SIZE = 64 << 20;
+    private static final int SLOTS_PER_REGION = REGION_SIZE / SLOT_SIZE;
+    private static final int LOCK_STRIPES = 1024;
+    private static final VarHandle SLOT_VERSION =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final MappedStoreProperties properties;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    private final AtomicReferenceArray<MappedByteBuffer> slotRegions;
+    private final ReentrantLock mapLock = new ReentrantLock();
+    private final AtomicLong highestId = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+    private final NavigableSet<Long> lowStockIds = new ConcurrentSkipListSet<>();
+    private final ConcurrentMap<String, Long> categoryRefs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> categoryNames = new ConcurrentHashMap<>();
+    private final ReentrantLock arenaLock = new ReentrantLock();
+    private volatile MappedByteBuffer[] arenaRegions = new MappedByteBuffer[0];
+    private long arenaTail;
+    private FileChannel slotsChannel;
+    private FileChannel stringsChannel;
+    private Path directory;
+    private volatile OptionalLong keptAt = OptionalLong.empty();
+    private volatile long keepSegment = -1;
+
+    /**
+     * What a clean shutdown left in the files: the WAL segment they are current with and where they end
+     */
+    @Value
+    private static class Checkpoint {
+        long segment;
+        long highestId;
+        long arenaTail;
+    }
+
+    public MappedProductStore(MappedStoreProperties properties) {
+        this.properties = properties;
+        this.slotRegions = new AtomicReferenceArray<>((int) (properties.getMaxProducts() / SLOTS_PER_REGION + 1));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = Path.of(properties.getDirectory());
+        Files.createDirectories(directory);
+        Checkpoint checkpoint = readCheckpoint();
+        // From here on the files can be torn by a crash, so they are only trusted again after the next clean close
+        Files.deleteIfExists(directory.resolve(CHECKPOINT_FILE));
+        boolean reopen = checkpoint != null && fitsFiles(checkpoint);
+        slotsChannel = openChannel(directory.resolve(SLOTS_FILE), !reopen);
+        stringsChannel = openChannel(directory.resolve(STRINGS_FILE), !reopen);
+        if (!reopen) {
+            return;
+        }
+        if (reload(checkpoint)) {
+            keptAt = OptionalLong.of(checkpoint.getSegment());
+            log.info("Reopened {} products kept at WAL segment {}", count.get(), checkpoint.getSegment());
+        } else {
+            log.warn("Product store files in {} do not match their checkpoint, starting empty", directory);
+            discardKept();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        long segment = keepSegment;
+        if (segment >= 0) {
+            for (int i = 0; i < slotRegions.length(); i++) {
+                MappedByteBuffer region = slotRegions.get(i);
+                if (region != null) {
+                    region.force();
+                }
+            }
+            for (MappedByteBuffer region : arenaRegions) {
+                region.force();
+            }
+            writeCheckpoint(new Checkpoint(segment, highestId.get(), arenaTail));
+        }
+        slotsChannel.close();
+        stringsChannel.close();
+    }
+
+    @Override
+    public OptionalLong keptAt() {
+        return keptAt;
+    }
+
+    @Override
+    public void keepOnClose(long segment) {
+        keepSegment = segment;
+    }
+
+    /**
+     * Mark every slot dead and forget the strings. Only called during startup, before any reader.
+     * The files are not truncated: that would fault any access to the regions already mapped.
+     */
+    @Override
+    public void discardKept() {
+        for (long id = 1; id <= highestId.get(); id++) {
+            ByteBuffer region = slotRegion(id, false);
+            if (region != null) {
+                int at = slotOffset(id);
+                SLOT_VERSION.set(region, at + VERSION, 0);
+                region.put(at + FLAGS, (byte) 0);
+            }
+        }
+        highestId.set(0);
+        count.set(0);
+        lowStockIds.clear();
+        categoryRefs.clear();
+        categoryNames.clear();
+        arenaLock.lock();
+        try {
+            arenaTail = 0;
+        } finally {
+            arenaLock.unlock();
+        }
+        keptAt = OptionalLong.empty();
+    }
+
+    @Override
+    public Product save(Product product) {
+        long id = checkId(product.getId());
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Product previous = read(id, ANY_CATEGORY);
+            write(id, previous, product);
+            if (previous == null) {
+                count.incrementAndGet();
+            }
+            return read(id, ANY_CATEGORY);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Product> findById(Long id) {
+        return Optional.ofNullable(read(id, ANY_CATEGORY));
+    }
+
+    @Override
+    public Optional<Product> update(Long id, UnaryOperator<Product> updater) {
+        if (id == null || id <= 0 || id > properties.getMaxProducts()) {
+            return Optional.empty();
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Product current = read(id, ANY_CATEGORY);
+            if (current == null) {
+                return Optional.empty();
+            }
+            write(id, current, updater.apply(current));
+            return Optional.of(read(id, ANY_CATEGORY));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Written in place under the slot's version, without decoding the strings or touching the other fields
+     */
+    @Override
+    public boolean updateQuantity(Long id, int quantity, boolean lowStock, LocalDateTime updatedAt) {
+        if (id == null || id <= 0 || id > highestId.get()) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            ByteBuffer region = slotRegion(id, false);
+            if (region == null) {
+                return false;
+            }
+            int at = slotOffset(id);
+            // Writers of this slot hold its lock, so the flags cannot change under us
+            byte flags = region.get(at + FLAGS);
+            if ((flags & LIVE) == 0) {
+                return false;
+            }
+            int version = beginWrite(region, at);
+            region.putInt(at + QUANTITY, quantity);
+            region.putLong(at + UPDATED_AT, Timestamps.toEpochMillis(updatedAt));
+            region.put(at + FLAGS, (byte) (lowStock ? flags | LOW_STOCK : flags & ~LOW_STOCK));
+            endWrite(region, at, version);
+            if (lowStock) {
+                lowStockIds.add(id);
+            } else {
+                lowStockIds.remove(id);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<Product> delete(Long id) {
+        if (id == null || id <= 0 || id > properties.getMaxProducts()) {
+            return Optional.empty();
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Product current = read(id, ANY_CATEGORY);
+            if (current == null) {
+                return Optional.empty();
+            }
+            ByteBuffer region = slotRegion(id, false);
+            int at = slotOffset(id);
+            int version = beginWrite(region, at);
+            region.put(at + FLAGS, (byte) 0);
+            endWrite(region, at, version);
+            lowStockIds.remove(id);
+            count.decrementAndGet();
+            return Optional.of(current);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return walk(null, false, ANY_CATEGORY).collect(Collectors.toCollection(() -> new ArrayList<>(count.get())));
+    }
+
+    @Override
+    public List<Product> findByCategory(String category) {
+        Long ref = categoryRefs.get(category);
+        return ref == null ? new ArrayList<>() : walk(null, false, ref).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public Stream<Product> scan(Long afterId, boolean descending) {
+        return walk(afterId, descending, ANY_CATEGORY);
+    }
+
+    @Override
+    public Stream<Product> scanCategory(String category, Long afterId, boolean descending) {
+        Long ref = categoryRefs.get(category);
+        return ref == null ? Stream.empty() : walk(afterId, descending, ref);
+    }
+
+    @Override
+    public Stream<Product> scanLowStock(Long afterId, boolean descending) {
+        NavigableSet<Long> ids = descending ? lowStockIds.descendingSet() : lowStockIds;
+        if (afterId != null) {
+            ids = ids.tailSet(afterId, false);
+        }
+        return ids.stream().map(id -> read(id, ANY_CATEGORY)).filter(Objects::nonNull);
+    }
+
+    @Override
+    public List<Product> findLowStock() {
+        return scanLowStock(null, false).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    private Stream<Product> walk(Long afterId, boolean descending, long categoryRef) {
+        long highest = highestId.get();
+        LongStream ids;
+        if (descending) {
+            long from = afterId == null ? highest : Math.min(afterId - 1, highest);
+            ids = LongStream.iterate(from, id -> id >= 1, id -> id - 1);
+        } else {
+            ids = LongStream.rangeClosed(afterId == null ? 1 : Math.max(1, afterId + 1), highest);
+        }
+        return ids.mapToObj(id -> read(id, categoryRef)).filter(Objects::nonNull);
+    }
+
+    /**
+     * Read a live slot, or null when it is empty or belongs to another category
+     */
+    private Product read(long id, long categoryRef) {
+        if (id <= 0 || id > highestId.get()) {
+            return null;
+        }
+        ByteBuffer region = slotRegion(id, false);
+        if (region == null) {
+            return null;
+        }
+        int at = slotOffset(id);
+        while (true) {
+            int version = (int) SLOT_VERSION.getAcquire(region, at + VERSION);
+            if ((version & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            byte flags = region.get(at + FLAGS);
+            long category = region.getLong(at + CATEGORY_REF);
+            int quantity = region.getInt(at + QUANTITY);
+            long priceUnscaled = region.getLong(at + PRICE_UNSCALED);
+            byte priceScale = region.get(at + PRICE_SCALE);
+            long createdAt = region.getLong(at + CREATED_AT);
+            long updatedAt = region.getLong(at + UPDATED_AT);
+            long nameRef = region.getLong(at + NAME_REF);
+            VarHandle.acquireFence();
+            if ((int) SLOT_VERSION.getVolatile(region, at + VERSION) != version) {
+                continue;
+            }
+            if ((flags & LIVE) == 0 || (categoryRef != ANY_CATEGORY && category != categoryRef)) {
+                return null;
+            }
+            return new Product(
+                    id,
+                    readString(nameRef),
+                    categoryNames.get(category),
+                    BigDecimal.valueOf(priceUnscaled, priceScale),
+                    quantity,
+                    (flags & LOW_STOCK) != 0,
+                    Timestamps.toDateTime(createdAt),
+                    Timestamps.toDateTime(updatedAt)
+            );
+        }
+    }
+
+    // Called while holding the lock of the id
+    private void write(long id, Product previous, Product product) {
+        ByteBuffer region = slotRegion(id, true);
+        int at = slotOffset(id);
+        // Everything that can fail happens before the slot is touched
+        int quantity = product.getQuantity();
+        long priceUnscaled = product.getPrice().unscaledValue().longValueExact();
+        byte priceScale = (byte) product.getPrice().scale();
+        long nameRef = previous != null && previous.getName().equals(product.getName())
+                ? region.getLong(at + NAME_REF)
+                : appendString(product.getName());
+        long categoryRef = categoryRef(product.getCategory());
+        byte flags = (byte) (LIVE | (product.isLowStock() ? LOW_STOCK : 0));
+        highestId.accumulateAndGet(id, Math::max);
+
+        int version = beginWrite(region, at);
+        region.putLong(at + ID, id);
+        region.putInt(at + QUANTITY, quantity);
+        region.putLong(at + PRICE_UNSCALED, priceUnscaled);
+        region.put(at + PRICE_SCALE, priceScale);
+        region.putLong(at + CREATED_AT, Timestamps.toEpochMillis(product.getCreatedAt()));
+        region.putLong(at + UPDATED_AT, Timestamps.toEpochMillis(product.getUpdatedAt()));
+        region.putLong(at + NAME_REF, nameRef);
+        region.putLong(at + CATEGORY_REF, categoryRef);
+        region.put(at + FLAGS, flags);
+        endWrite(region, at, version);
+
+        if (product.isLowStock()) {
+            lowStockIds.add(id);
+        } else {
+            lowStockIds.remove(id);
+        }
+    }
+
+    private static int beginWrite(ByteBuffer region, int at) {
+        int version = (int) SLOT_VERSION.get(region, at + VERSION);
+        SLOT_VERSION.setOpaque(region, at + VERSION, version + 1);
+        VarHandle.storeStoreFence();
+        return version;
+    }
+
+    private static void endWrite(ByteBuffer region, int at, int version) {
+        SLOT_VERSION.setRelease(region, at + VERSION, version + 2);
+    }
+
+    private long categoryRef(String category) {
+        Long ref = categoryRefs.get(category);
+        if (ref != null) {
+            return ref;
+        }
+        return categoryRefs.computeIfAbsent(category, key -> {
+            long added = appendString(key);
+            categoryNames.put(added, key);
+            return added;
+        });
+    }
+
+    /**
+     * Append a length-prefixed UTF-8 string to the arena and return its offset.
+     * Entries never straddle two mapped regions and are never modified once written.
+     */
+    private long appendString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int size = Integer.BYTES + bytes.length;
+        arenaLock.lock();
+        try {
+            long offset = arenaTail;
+            if (offset % REGION_SIZE + size > REGION_SIZE) {
+                offset = (offset / REGION_SIZE + 1) * REGION_SIZE;
+            }
+            int index = (int) (offset / REGION_SIZE);
+            MappedByteBuffer[] regions = arenaRegions;
+            if (index == regions.length) {
+                regions = Arrays.copyOf(regions, index + 1);
+                regions[index] = map(stringsChannel, (long) index * REGION_SIZE);
+                arenaRegions = regions;
+            }
+            int at = (int) (offset % REGION_SIZE);
+            regions[index].putInt(at, bytes.length);
+            regions[index].put(at + Integer.BYTES, bytes);
+            arenaTail = offset + size;
+            return offset;
+        } finally {
+            arenaLock.unlock();
+        }
+    }
+
+    private String readString(long ref) {
+        ByteBuffer region = arenaRegions[(int) (ref / REGION_SIZE)];
+        int at = (int) (ref % REGION_SIZE);
+        byte[] bytes = new byte[region.getInt(at)];
+        region.get(at + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MappedByteBuffer slotRegion(long id, boolean create) {
+        int index = (int) (id / SLOTS_PER_REGION);
+        MappedByteBuffer region = slotRegions.get(index);
+        if (region != null || !create) {
+            return region;
+        }
+        mapLock.lock();
+        try {
+            region = slotRegions.get(index);
+            if (region == null) {
+                region = map(slotsChannel, (long) index * REGION_SIZE);
+                slotRegions.set(index, region);
+            }
+            return region;
+        } finally {
+            mapLock.unlock();
+        }
+    }
+
+    private static int slotOffset(long id) {
+        return (int) (id % SLOTS_PER_REGION) * SLOT_SIZE;
+    }
+
+    private long checkId(Long id) {
+        Objects.requireNonNull(id, "Product id is required");
+        if (id <= 0 || id > properties.getMaxProducts()) {
+            throw new IllegalArgumentException("Product id " + id + " is outside the mapped store (1.."
+                    + properties.getMaxProducts() + ")");
+        }
+        return id;
+    }
+
+    private ReentrantLock lockFor(long id) {
+        return locks[(int) (id % LOCK_STRIPES)];
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_SIZE);
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not map product store region", e);
+        }
+    }
+
+    /**
+     * Map the kept strings and rebuild the heap side (count, low-stock ids, categories) from the kept slots.
+     * Returns false when a slot was torn or points outside the strings.
+     */
+    private boolean reload(Checkpoint checkpoint) {
+        arenaTail = checkpoint.getArenaTail();
+        int arenaRegionCount = (int) ((arenaTail + REGION_SIZE - 1) / REGION_SIZE);
+        MappedByteBuffer[] regions = new MappedByteBuffer[arenaRegionCount];
+        for (int i = 0; i < arenaRegionCount; i++) {
+            regions[i] = map(stringsChannel, (long) i * REGION_SIZE);
+        }
+        arenaRegions = regions;
+        highestId.set(checkpoint.getHighestId());
+        for (long id = 1; id <= checkpoint.getHighestId(); id++) {
+            ByteBuffer region = slotRegion(id, true);
+            int at = slotOffset(id);
+            if (((int) SLOT_VERSION.get(region, at + VERSION) & 1) != 0) {
+                return false;
+            }
+            byte flags = region.get(at + FLAGS);
+            if ((flags & LIVE) == 0) {
+                continue;
+            }
+            long categoryRef = region.getLong(at + CATEGORY_REF);
+            if (!isString(region.getLong(at + NAME_REF)) || !isString(categoryRef)) {
+                return false;
+            }
+            if (!categoryNames.containsKey(categoryRef)) {
+                String category = readString(categoryRef);
+                categoryNames.put(categoryRef, category);
+                categoryRefs.put(category, categoryRef);
+            }
+            if ((flags & LOW_STOCK) != 0) {
+                lowStockIds.add(id);
+            }
+            count.incrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Whether a whole string entry starts at {@code ref} below the arena tail
+     */
+    private boolean isString(long ref) {
+        if (ref < 0 || ref % REGION_SIZE + Integer.BYTES > REGION_SIZE || ref + Integer.BYTES > arenaTail) {
+            return false;
+        }
+        int length = arenaRegions[(int) (ref / REGION_SIZE)].getInt((int) (ref % REGION_SIZE));
+        return length >= 0 && ref + Integer.BYTES + length <= arenaTail;
+    }
+
+    private boolean fitsFiles(Checkpoint checkpoint) throws IOException {
+        Path slots = directory.resolve(SLOTS_FILE);
+        Path strings = directory.resolve(STRINGS_FILE);
+        long highest = checkpoint.getHighestId();
+        return highest >= 0 && highest <= properties.getMaxProducts()
+                && checkpoint.getArenaTail() >= 0
+                && Files.exists(slots) && Files.exists(strings)
+                && (highest == 0 || Files.size(slots) >= (highest / SLOTS_PER_REGION + 1) * REGION_SIZE)
+                && Files.size(strings) >= checkpoint.getArenaTail();
+    }
+
+    private Checkpoint readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() != 40 || buffer.getInt() != CHECKPOINT_MAGIC || buffer.getInt() != CHECKPOINT_VERSION) {
+            log.warn("Ignoring unreadable product store checkpoint {}", file);
+            return null;
+        }
+        Checkpoint checkpoint = new Checkpoint(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 32);
+        if (buffer.getLong() != crc.getValue()) {
+            log.warn("Ignoring corrupt product store checkpoint {}", file);
+            return null;
+        }
+        return checkpoint;
+    }
+
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(40)
+                .putInt(CHECKPOINT_MAGIC)
+                .putInt(CHECKPOINT_VERSION)
+                .putLong(checkpoint.getSegment())
+                .putLong(checkpoint.getHighestId())
+                .putLong(checkpoint.getArenaTail());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 32);
+        buffer.putLong(crc.getValue()).flip();
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static FileChannel openChannel(Path file, boolean truncate) throws IOException {
+        return truncate
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+}
@@ -0,0 +1,16 @@
+package com.checkpoint.productmanagement.store;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the memory-mapped product store
+ */
+@Data
+@ConfigurationProperties(prefix = "product.store.mmap")
+public class MappedStoreProperties {
+    /** Directory of the slot and string files */
+    private String directory = "data/catalog";
+    /** Highest product id the slot file can address */
+    private long maxProducts = 100_000_000L;
+}
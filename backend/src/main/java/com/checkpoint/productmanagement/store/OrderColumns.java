@@ -0,0 +1,251 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Order;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable column layout of a sealed order segment.
+ * Rows are sorted by order date then id and kept as primitive arrays, about 40 bytes per order
+ * instead of an {@link Order} with its boxed fields and {@link LocalDateTime}. Two position
+ * indexes, by id and by product, make lookups a binary search.
+ */
+final class OrderColumns {
+    static final Comparator<Order> ORDER = Comparator.comparingLong((Order order) -> dateKey(order.getOrderDate()))
+            .thenComparingLong(Order::getId);
+
+    private final long[] ids;
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long[] dates;
+    private final String[] names;
+    // Positions sorted by id, and by product then position
+    private final int[] byId;
+    private final int[] byProduct;
+
+    private OrderColumns(long[] ids, long[] productIds, int[] quantities, long[] dates, String[] names) {
+        this.ids = ids;
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.dates = dates;
+        this.names = names;
+        this.byId = sortedPositions(Comparator.comparingLong(position -> ids[position]));
+        this.byProduct = sortedPositions(Comparator.<Integer>comparingLong(position -> productIds[position])
+                .thenComparingInt(position -> position));
+    }
+
+    static OrderColumns of(Collection<Order> orders) {
+        Order[] sorted = orders.toArray(new Order[0]);
+        Arrays.sort(sorted, ORDER);
+        int size = sorted.length;
+        long[] ids = new long[size];
+        long[] productIds = new long[size];
+        int[] quantities = new int[size];
+        long[] dates = new long[size];
+        String[] names = new String[size];
+        Map<String, String> distinctNames = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Order order = sorted[i];
+            ids[i] = order.getId();
+            productIds[i] = order.getProductId();
+            quantities[i] = order.getQuantityOrdered();
+            dates[i] = dateKey(order.getOrderDate());
+            names[i] = distinctNames.computeIfAbsent(order.getProductName(), name -> name);
+        }
+        return new OrderColumns(ids, productIds, quantities, dates, names);
+    }
+
+    /**
+     * Order dates as nanoseconds, reading the local date-time as UTC so the value round-trips exactly
+     */
+    static long dateKey(LocalDateTime date) {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + date.getNano();
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long minId() {
+        return ids.length == 0 ? Long.MAX_VALUE : ids[byId[0]];
+    }
+
+    long maxId() {
+        return ids.length == 0 ? Long.MIN_VALUE : ids[byId[byId.length - 1]];
+    }
+
+    Order get(int position) {
+        long date = dates[position];
+        LocalDateTime orderDate = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(date, 1_000_000_000L), (int) Math.floorMod(date, 1_000_000_000L), ZoneOffset.UTC);
+        return new Order(ids[position], productIds[position], names[position], quantities[position], orderDate);
+    }
+
+    List<Order> toList() {
+        List<Order> orders = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            orders.add(get(i));
+        }
+        return orders;
+    }
+
+    /**
+     * Position of the order with this id, or -1
+     */
+    int indexOfId(long id) {
+        int low = 0;
+        int high = byId.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = ids[byId[mid]];
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return byId[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of rows that sort before the key (order date, id)
+     */
+    int rank(long date, long id) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (dates[mid] < date || (dates[mid] == date && ids[mid] < id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Up to {@code limit} orders with a key (order date, id) from the low key inclusive to the high key exclusive,
+     * optionally of one product, in row order or reversed
+     */
+    List<Order> select(long lowDate, long lowId, long highDate, long highId, Long productId, int limit,
+                       boolean descending) {
+        int low = rank(lowDate, lowId);
+        int high = rank(highDate, highId);
+        List<Order> result = new ArrayList<>();
+        if (productId == null) {
+            for (int i = 0; i < high - low && result.size() < limit; i++) {
+                result.add(get(descending ? high - 1 - i : low + i));
+            }
+            return result;
+        }
+        int[] positions = positionsOfProduct(productId);
+        int first = insertionPoint(positions, low);
+        int end = insertionPoint(positions, high);
+        for (int i = 0; i < end - first && result.size() < limit; i++) {
+            result.add(get(positions[descending ? end - 1 - i : first + i]));
+        }
+        return result;
+    }
+
+    /**
+     * Compare the key (order date, id) of an order with another key
+     */
+    static int compareKey(Order order, long date, long id) {
+        int byDate = Long.compare(dateKey(order.getOrderDate()), date);
+        return byDate != 0 ? byDate : Long.compare(order.getId(), id);
+    }
+
+    /**
+     * Positions of the orders of one product, in row order
+     */
+    int[] positionsOfProduct(long productId) {
+        int low = 0;
+        int high = byProduct.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (productIds[byProduct[mid]] < productId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int end = low;
+        while (end < byProduct.length && productIds[byProduct[end]] == productId) {
+            end++;
+        }
+        return Arrays.copyOfRange(byProduct, low, end);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        int size = size();
+        out.writeInt(size);
+        out.writeLong(minId());
+        out.writeLong(maxId());
+        Map<String, Integer> nameIndex = new HashMap<>();
+        List<String> distinctNames = new ArrayList<>();
+        for (String name : names) {
+            nameIndex.computeIfAbsent(name, key -> {
+                distinctNames.add(key);
+                return distinctNames.size() - 1;
+            });
+        }
+        out.writeInt(distinctNames.size());
+        for (String name : distinctNames) {
+            out.writeUTF(name);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeLong(ids[i]);
+            out.writeLong(productIds[i]);
+            out.writeInt(quantities[i]);
+            out.writeLong(dates[i]);
+            out.writeInt(nameIndex.get(names[i]));
+        }
+    }
+
+    static OrderColumns readFrom(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        in.readLong();
+        in.readLong();
+        String[] distinctNames = new String[in.readInt()];
+        for (int i = 0; i < distinctNames.length; i++) {
+            distinctNames[i] = in.readUTF();
+        }
+        long[] ids = new long[size];
+        long[] productIds = new long[size];
+        int[] quantities = new int[size];
+        long[] dates = new long[size];
+        String[] names = new String[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = in.readLong();
+            productIds[i] = in.readLong();
+            quantities[i] = in.readInt();
+            dates[i] = in.readLong();
+            names[i] = distinctNames[in.readInt()];
+        }
+        return new OrderColumns(ids, productIds, quantities, dates, names);
+    }
+
+    private static int insertionPoint(int[] positions, int position) {
+        int index = Arrays.binarySearch(positions, position);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private int[] sortedPositions(Comparator<Integer> comparator) {
+        return IntStream.range(0, ids.length).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+}
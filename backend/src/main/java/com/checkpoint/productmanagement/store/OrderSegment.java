@@ -0,0 +1,242 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * The orders of one time span.
+ * New orders go to a small map of pending orders, indexed by key and by product like the columns, so a query
+ * holds the read lock only for the orders it returns and never delays new orders by scanning or sorting.
+ * Sealing merges them into immutable {@link OrderColumns};
+ * archiving leaves the columns on disk only, and they are loaded back when a query or a late order needs them.
+ * Methods that may need the archived columns take a supplier that loads them, called under the segment lock.
+ */
+final class OrderSegment {
+    final long start;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Order> pending = new HashMap<>();
+    private final NavigableMap<Key, Order> pendingByKey = new TreeMap<>();
+    private final Map<Long, NavigableMap<Key, Order>> pendingByProduct = new HashMap<>();
+    private OrderColumns columns;
+    private boolean archived;
+    private volatile long minId;
+    private volatile long maxId;
+    private volatile int size;
+
+    OrderSegment(long start) {
+        this.start = start;
+        this.minId = Long.MAX_VALUE;
+        this.maxId = Long.MIN_VALUE;
+    }
+
+    /**
+     * A segment whose columns are only on disk
+     */
+    static OrderSegment archived(long start, int size, long minId, long maxId) {
+        OrderSegment segment = new OrderSegment(start);
+        segment.archived = true;
+        segment.size = size;
+        segment.minId = minId;
+        segment.maxId = maxId;
+        return segment;
+    }
+
+    boolean mayContain(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Add an order unless its id is already here
+     */
+    boolean add(Order order, Supplier<OrderColumns> archive) {
+        lock.writeLock().lock();
+        try {
+            OrderColumns loaded = archived ? archive.get() : null;
+            OrderColumns sealed = archived ? loaded : columns;
+            if (pending.containsKey(order.getId()) || (sealed != null && sealed.indexOfId(order.getId()) >= 0)) {
+                return false;
+            }
+            if (archived) {
+                // A late order reopens the segment until it is sealed and archived again
+                columns = loaded;
+                archived = false;
+            }
+            pending.put(order.getId(), order);
+            Key key = Key.of(order);
+            pendingByKey.put(key, order);
+            pendingByProduct.computeIfAbsent(order.getProductId(), productId -> new TreeMap<>()).put(key, order);
+            minId = Math.min(minId, order.getId());
+            maxId = Math.max(maxId, order.getId());
+            size++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merge pending orders into the columns
+     */
+    void seal() {
+        lock.writeLock().lock();
+        try {
+            if (archived || pending.isEmpty()) {
+                return;
+            }
+            List<Order> all = new ArrayList<>(pending.values());
+            if (columns != null) {
+                all.addAll(columns.toList());
+            }
+            columns = OrderColumns.of(all);
+            pending.clear();
+            pendingByKey.clear();
+            pendingByProduct.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The columns to write when archiving, or null when there is nothing to archive
+     */
+    OrderColumns sealedColumns() {
+        lock.readLock().lock();
+        try {
+            return archived || !pending.isEmpty() ? null : columns;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the in-memory columns once they are safely on disk, unless an order arrived meanwhile
+     */
+    boolean markArchived(OrderColumns written) {
+        lock.writeLock().lock();
+        try {
+            if (columns != written || !pending.isEmpty()) {
+                return false;
+            }
+            columns = null;
+            archived = true;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} orders between two keys, as {@link OrderColumns#select} but including pending orders
+     */
+    List<Order> select(long lowDate, long lowId, long highDate, long highId, Long productId, int limit,
+                       boolean descending, Supplier<OrderColumns> archive) {
+        lock.readLock().lock();
+        try {
+            OrderColumns sealed = archived ? archive.get() : columns;
+            List<Order> fromColumns = sealed == null
+                    ? List.of()
+                    : sealed.select(lowDate, lowId, highDate, highId, productId, limit, descending);
+            NavigableMap<Key, Order> index = productId == null
+                    ? pendingByKey
+                    : pendingByProduct.getOrDefault(productId, Collections.emptyNavigableMap());
+            NavigableMap<Key, Order> range = index.isEmpty()
+                    ? index
+                    : index.subMap(new Key(lowDate, lowId), true, new Key(highDate, highId), false);
+            return merge(fromColumns, (descending ? range.descendingMap() : range).values(), limit,
+                    descending ? OrderColumns.ORDER.reversed() : OrderColumns.ORDER);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The first {@code limit} orders of two lists already sorted by {@code order}
+     */
+    private static List<Order> merge(List<Order> first, Iterable<Order> second, int limit, Comparator<Order> order) {
+        List<Order> result = new ArrayList<>(Math.min(limit, first.size() + 16));
+        Iterator<Order> others = second.iterator();
+        Order other = others.hasNext() ? others.next() : null;
+        int i = 0;
+        while (result.size() < limit && (i < first.size() || other != null)) {
+            if (other == null || (i < first.size() && order.compare(first.get(i), other) <= 0)) {
+                result.add(first.get(i++));
+            } else {
+                result.add(other);
+                other = others.hasNext() ? others.next() : null;
+            }
+        }
+        return result;
+    }
+
+    Order findById(long id, Supplier<OrderColumns> archive) {
+        lock.readLock().lock();
+        try {
+            Order order = pending.get(id);
+            if (order != null) {
+                return order;
+            }
+            OrderColumns sealed = archived ? archive.get() : columns;
+            if (sealed == null) {
+                return null;
+            }
+            int position = sealed.indexOfId(id);
+            return position < 0 ? null : sealed.get(position);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every order held in memory
+     */
+    List<Order> inMemory() {
+        lock.readLock().lock();
+        try {
+            List<Order> result = new ArrayList<>(pending.values());
+            if (!archived && columns != null) {
+                result.addAll(columns.toList());
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Order date and id, the key orders are sorted by
+     */
+    private static final class Key implements Comparable<Key> {
+        final long date;
+        final long id;
+
+        Key(long date, long id) {
+            this.date = date;
+            this.id = id;
+        }
+
+        static Key of(Order order) {
+            return new Key(OrderColumns.dateKey(order.getOrderDate()), order.getId());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byDate = Long.compare(date, other.date);
+            return byDate != 0 ? byDate : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
+import com.checkpoint.productmanagement.entity.Order;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage abstraction for the order history. Implementations must be thread-safe.
+ */
+public interface OrderStore {
+
+    /**
+     * Add an order; an order whose id is already stored is ignored
+     */
+    void add(Order order);
+
+    Optional<Order> findById(long id);
+
+    /**
+     * One page of orders matching the query, by order date then id
+     */
+    OrderPage find(OrderQuery query);
+
+    /**
+     * Lazily walk every order by order date then id
+     */
+    Stream<Order> scan();
+
+    /**
+     * Orders that only live in memory, the part of the history a snapshot has to hold
+     */
+    List<Order> findUnarchived();
+
+    long size();
+}
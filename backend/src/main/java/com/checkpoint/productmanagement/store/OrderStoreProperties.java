@@ -0,0 +1,26 @@
+package com.checkpoint.productmanagement.store;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the order history store
+ */
+@Data
+@ConfigurationProperties(prefix = "orders.store")
+public class OrderStoreProperties {
+    /** Time span of one segment */
+    private Duration segmentDuration = Duration.ofHours(1);
+    /** How long after its end a segment still takes late orders before it is sealed */
+    private Duration sealDelay = Duration.ofMinutes(1);
+    /** Sealed segments kept in memory; older ones are archived to disk */
+    private int maxResidentSegments = 24;
+    /** Archived segments kept loaded for queries */
+    private int maxLoadedArchives = 4;
+    /** Interval of sealing and archiving */
+    private long maintenanceIntervalMs = 10000;
+    /** Directory of archived segments */
+    private String directory = "data/orders";
+}
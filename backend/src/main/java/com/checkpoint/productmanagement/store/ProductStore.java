@@ -0,0 +1,89 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Storage abstraction for products.
+ * Implementations must be thread-safe and keep their secondary indexes
+ * (category, low stock) consistent with every write.
+ */
+public interface ProductStore {
+
+    /**
+     * Insert or replace a product
+     */
+    Product save(Product product);
+
+    Optional<Product> findById(Long id);
+
+    /**
+     * Atomically replace the product with the result of the updater.
+     * The updater runs exactly once while other writes to the same product are held off, possibly under a
+     * lock shared with other products, so it must not block or do I/O.
+     */
+    Optional<Product> update(Long id, UnaryOperator<Product> updater);
+
+    /**
+     * Set the quantity, low-stock flag and update time of a product and leave the rest as it is.
+     * Returns false if there is no such product. Stores that can write these fields in place do so without
+     * reading or rewriting the whole product.
+     */
+    default boolean updateQuantity(Long id, int quantity, boolean lowStock, LocalDateTime updatedAt) {
+        return update(id, current -> current.toBuilder()
+                .quantity(quantity)
+                .isLowStock(lowStock)
+                .updatedAt(updatedAt)
+                .build()).isPresent();
+    }
+
+    Optional<Product> delete(Long id);
+
+    /**
+     * All products ordered by id
+     */
+    List<Product> findAll();
+
+    List<Product> findByCategory(String category);
+
+    /**
+     * Lazily walk products in id order, starting after {@code afterId} (null to start at the beginning).
+     * The walk is weakly consistent: it never fails under concurrent writes and does not copy the catalog.
+     */
+    Stream<Product> scan(Long afterId, boolean descending);
+
+    Stream<Product> scanCategory(String category, Long afterId, boolean descending);
+
+    Stream<Product> scanLowStock(Long afterId, boolean descending);
+
+    List<Product> findLowStock();
+
+    int size();
+
+    /**
+     * WAL segment the products found on startup were kept at by the last clean shutdown, or empty when the
+     * store started empty. Replaying that segment and the later ones brings them up to date.
+     */
+    default OptionalLong keptAt() {
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Keep the products across the restart, as of WAL segment {@code segment}.
+     * Stores whose contents do not outlive the process ignore it.
+     */
+    default void keepOnClose(long segment) {
+    }
+
+    /**
+     * Drop the products kept from the last run, when they cannot be brought up to date from the WAL
+     */
+    default void discardKept() {
+    }
+}
@@ -0,0 +1,336 @@
+package com.checkpoint.productmanagement.store;
+
+import com.checkpoint.productmanagement.dto.OrderPage;
+import com.checkpoint.productmanagement.dto.OrderQuery;
+import com.checkpoint.productmanagement.entity.Order;
+import com.checkpoint.productmanagement.persistence.PersistenceProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Order history partitioned into time segments of {@code orders.store.segment-duration}.
+ * <p>
+ * Orders land in the segment of their order date. Once a segment has ended and the seal delay has passed,
+ * its orders are sealed into sorted primitive columns indexed by id and by product. Only the newest
+ * {@code max-resident-segments} sealed segments stay on the heap; older ones are archived to one file
+ * each and read back on demand, with a few of them kept loaded. Memory is therefore bounded by the recent
+ * segments whatever the length of the history, and a query only touches the segments of its date range.
+ * <p>
+ * Archive files are the durable copy of archived orders, snapshots only hold the orders still in memory.
+ * An archive is written to a temp file with a CRC32 trailer, forced and then moved into place, so a crash
+ * never leaves a partial archive.
+ */
+@Component
+@EnableConfigurationProperties(OrderStoreProperties.class)
+@Slf4j
+public class SegmentedOrderStore implements OrderStore {
+    private static final int MAGIC = 0x4F524453;
+    private static final int VERSION = 1;
+    private static final int MAX_LIMIT = 1000;
+    private static final String ARCHIVE_PREFIX = "orders-";
+    private static final String ARCHIVE_SUFFIX = ".seg";
+
+    private final OrderStoreProperties properties;
+    private final PersistenceProperties persistenceProperties;
+    private final Path directory;
+    private final long segmentNanos;
+    // Segments by the date key their time span starts at
+    private final ConcurrentSkipListMap<Long, OrderSegment> segments = new ConcurrentSkipListMap<>();
+    private final LoadingCache<Long, OrderColumns> archives;
+
+    public SegmentedOrderStore(OrderStoreProperties properties, PersistenceProperties persistenceProperties) {
+        if (properties.getSegmentDuration().isNegative() || properties.getSegmentDuration().isZero()) {
+            throw new IllegalArgumentException("orders.store.segment-duration must be positive");
+        }
+        this.properties = properties;
+        this.persistenceProperties = persistenceProperties;
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentNanos = properties.getSegmentDuration().toNanos();
+        this.archives = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxLoadedArchives())
+                .build(this::readArchive);
+    }
+
+    /**
+     * Register the archived segments. Without persistence the order ids start over, so old archives are removed.
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                String name = file.getFileName().toString();
+                if (!name.startsWith(ARCHIVE_PREFIX)) {
+                    continue;
+                }
+                if (!persistenceProperties.isEnabled() || !name.endsWith(ARCHIVE_SUFFIX)) {
+                    Files.delete(file);
+                    continue;
+                }
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                    if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                        log.warn("Skipping order archive {} with an unknown format", file);
+                        continue;
+                    }
+                    long start = in.readLong();
+                    int size = in.readInt();
+                    segments.put(start, OrderSegment.archived(start, size, in.readLong(), in.readLong()));
+                }
+            }
+        }
+        if (!segments.isEmpty()) {
+            log.info("Found {} archived order segments with {} orders", segments.size(), size());
+        }
+    }
+
+    @Override
+    public void add(Order order) {
+        long start = segmentStart(OrderColumns.dateKey(order.getOrderDate()));
+        OrderSegment segment = segments.computeIfAbsent(start, OrderSegment::new);
+        segment.add(order, archive(start));
+    }
+
+    @Override
+    public Optional<Order> findById(long id) {
+        // Ids grow with time, so the newest segments are the likeliest
+        for (OrderSegment segment : segments.descendingMap().values()) {
+            if (segment.mayContain(id)) {
+                Order order = segment.findById(id, archive(segment.start));
+                if (order != null) {
+                    return Optional.of(order);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public OrderPage find(OrderQuery query) {
+        if (query.getLimit() < 1 || query.getLimit() > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        long lowDate = query.getFrom() == null ? Long.MIN_VALUE : OrderColumns.dateKey(query.getFrom());
+        long lowId = Long.MIN_VALUE;
+        long highDate = query.getTo() == null ? Long.MAX_VALUE : OrderColumns.dateKey(query.getTo());
+        long highId = Long.MIN_VALUE;
+        if (query.getCursor() != null) {
+            Cursor cursor = Cursor.decode(query.getCursor());
+            if (query.isDescending()) {
+                if (compare(cursor.date, cursor.id, highDate, highId) < 0) {
+                    highDate = cursor.date;
+                    highId = cursor.id;
+                }
+            } else if (compare(cursor.date, cursor.id + 1, lowDate, lowId) > 0) {
+                lowDate = cursor.date;
+                lowId = cursor.id + 1;
+            }
+        }
+
+        List<Order> items = new ArrayList<>();
+        if (compare(lowDate, lowId, highDate, highId) < 0) {
+            // Without a lower bound the segment start would overflow
+            long first = lowDate == Long.MIN_VALUE ? Long.MIN_VALUE : segmentStart(lowDate);
+            ConcurrentNavigableMap<Long, OrderSegment> range = segments.subMap(first, true, segmentStart(highDate), true);
+            Collection<OrderSegment> inOrder = query.isDescending() ? range.descendingMap().values() : range.values();
+            // One more than the limit tells whether there is a next page
+            for (OrderSegment segment : inOrder) {
+                items.addAll(segment.select(lowDate, lowId, highDate, highId, query.getProductId(),
+                        query.getLimit() + 1 - items.size(), query.isDescending(), archive(segment.start)));
+                if (items.size() > query.getLimit()) {
+                    break;
+                }
+            }
+        }
+        if (items.size() <= query.getLimit()) {
+            return new OrderPage(items, null);
+        }
+        items = new ArrayList<>(items.subList(0, query.getLimit()));
+        return new OrderPage(items, Cursor.of(items.get(items.size() - 1)).encode());
+    }
+
+    @Override
+    public Stream<Order> scan() {
+        return segments.values().stream()
+                .flatMap(segment -> segment.select(Long.MIN_VALUE, Long.MIN_VALUE, Long.MAX_VALUE, Long.MAX_VALUE,
+                        null, Integer.MAX_VALUE, false, archive(segment.start)).stream());
+    }
+
+    @Override
+    public List<Order> findUnarchived() {
+        List<Order> orders = new ArrayList<>();
+        for (OrderSegment segment : segments.values()) {
+            orders.addAll(segment.inMemory());
+        }
+        return orders;
+    }
+
+    @Override
+    public long size() {
+        long size = 0;
+        for (OrderSegment segment : segments.values()) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Seal the segments past their seal delay and archive the sealed ones beyond the resident limit, oldest first
+     */
+    @Scheduled(fixedDelayString = "${orders.store.maintenance-interval-ms:10000}")
+    public void maintain() {
+        long sealedBefore = OrderColumns.dateKey(LocalDateTime.now()) - properties.getSealDelay().toNanos();
+        List<OrderSegment> sealed = new ArrayList<>();
+        for (OrderSegment segment : segments.values()) {
+            if (segment.start + segmentNanos > sealedBefore) {
+                break;
+            }
+            segment.seal();
+            if (segment.sealedColumns() != null) {
+                sealed.add(segment);
+            }
+        }
+        int excess = sealed.size() - properties.getMaxResidentSegments();
+        for (int i = 0; i < excess; i++) {
+            try {
+                archive(sealed.get(i));
+            } catch (IOException e) {
+                log.error("Error archiving order segment {}", sealed.get(i).start, e);
+                return;
+            }
+        }
+    }
+
+    private void archive(OrderSegment segment) throws IOException {
+        OrderColumns columns = segment.sealedColumns();
+        if (columns == null) {
+            return;
+        }
+        Path target = directory.resolve(fileName(segment.start));
+        Path temp = directory.resolve(fileName(segment.start) + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            BufferedOutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment.start);
+            columns.writeTo(out);
+            out.flush();
+            new DataOutputStream(file).writeLong(crc.getValue());
+            file.flush();
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        // A segment archived before may still be loaded with its older content
+        archives.invalidate(segment.start);
+        if (segment.markArchived(columns)) {
+            log.debug("Archived {} orders of segment {}", columns.size(), segment.start);
+        }
+    }
+
+    private OrderColumns readArchive(Long start) throws IOException {
+        Path file = directory.resolve(fileName(start));
+        CRC32 crc = new CRC32();
+        try (BufferedInputStream buffered = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            DataInputStream in = new DataInputStream(new CheckedInputStream(buffered, crc));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != start) {
+                throw new IOException("Not an order archive: " + file);
+            }
+            OrderColumns columns = OrderColumns.readFrom(in);
+            long expected = crc.getValue();
+            if (new DataInputStream(buffered).readLong() != expected) {
+                throw new IOException("Checksum mismatch in order archive " + file);
+            }
+            return columns;
+        }
+    }
+
+    private Supplier<OrderColumns> archive(long start) {
+        return () -> {
+            try {
+                return archives.get(start);
+            } catch (CompletionException e) {
+                throw new IllegalStateException("Could not read order archive " + fileName(start), e);
+            }
+        };
+    }
+
+    private long segmentStart(long dateKey) {
+        return Math.floorDiv(dateKey, segmentNanos) * segmentNanos;
+    }
+
+    private static int compare(long date, long id, long otherDate, long otherId) {
+        int byDate = Long.compare(date, otherDate);
+        return byDate != 0 ? byDate : Long.compare(id, otherId);
+    }
+
+    private static String fileName(long start) {
+        return ARCHIVE_PREFIX + start + ARCHIVE_SUFFIX;
+    }
+
+    /**
+     * Position after the last order of a page: its date key and id, Base64 encoded
+     */
+    private static class Cursor {
+        private final long id;
+        private final long date;
+
+        private Cursor(long id, long date) {
+            this.id = id;
+            this.date = date;
+        }
+
+        static Cursor of(Order order) {
+            return new Cursor(order.getId(), OrderColumns.dateKey(order.getOrderDate()));
+        }
+
+        static Cursor decode(String value) {
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                return new Cursor(Long.parseLong(decoded.substring(0, separator)),
+                        Long.parseLong(decoded.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + value);
+            }
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((id + ":" + date).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
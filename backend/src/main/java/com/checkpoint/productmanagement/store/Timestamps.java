@@ -0,0 +1,24 @@
+package com.checkpoint.productmanagement.store;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Epoch millis encoding of product timestamps used by the compact layouts.
+ * Local date-times are stored as if they were UTC, which round-trips them to the millisecond.
+ */
+final class Timestamps {
+    static final long NONE = Long.MIN_VALUE;
+
+    private Timestamps() {
+    }
+
+    static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? NONE : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime toDateTime(long epochMillis) {
+        return epochMillis == NONE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+}
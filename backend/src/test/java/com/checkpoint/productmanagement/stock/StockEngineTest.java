@@ -0,0 +1,137 @@
+package com.checkpoint.productmanagement.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockEngineTest {
+    private static final long PRODUCT_ID = 1;
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 20_000;
+
+    private final StockEngine stockEngine = new StockEngine();
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        int initial = 5_000;
+        stockEngine.register(PRODUCT_ID, initial);
+        AtomicInteger sold = new AtomicInteger();
+
+        hammer(() -> {
+            StockReservation reservation = tryReserve();
+            if (reservation == null) {
+                return;
+            }
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                stockEngine.commit(reservation);
+                sold.addAndGet(reservation.getQuantity());
+            } else {
+                stockEngine.release(reservation);
+            }
+        }, null);
+
+        assertThat(stockEngine.getOnHand(PRODUCT_ID)).isEqualTo(initial - sold.get()).isGreaterThanOrEqualTo(0);
+        assertThat(stockEngine.getAvailable(PRODUCT_ID)).isEqualTo(stockEngine.getOnHand(PRODUCT_ID));
+        assertThat(stockEngine.getActiveReservationCount()).isZero();
+    }
+
+    @Test
+    void stockUpdatesNeverDropBelowReservedStock() throws Exception {
+        stockEngine.register(PRODUCT_ID, 100);
+
+        hammer(() -> {
+            StockReservation reservation = tryReserve();
+            if (reservation == null) {
+                return;
+            }
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                stockEngine.commit(reservation);
+            } else {
+                stockEngine.release(reservation);
+            }
+        }, () -> {
+            try {
+                stockEngine.setOnHand(PRODUCT_ID, ThreadLocalRandom.current().nextInt(0, 200));
+            } catch (IllegalArgumentException e) {
+                // Refused because more stock is reserved than the new quantity
+            }
+        });
+
+        assertThat(stockEngine.getOnHand(PRODUCT_ID)).isGreaterThanOrEqualTo(0);
+        assertThat(stockEngine.getAvailable(PRODUCT_ID)).isEqualTo(stockEngine.getOnHand(PRODUCT_ID));
+        assertThat(stockEngine.getActiveReservationCount()).isZero();
+    }
+
+    private StockReservation tryReserve() {
+        try {
+            return stockEngine.reserve(PRODUCT_ID, ThreadLocalRandom.current().nextInt(1, 6));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Run {@code order} from many threads and {@code restock} from one more, while another thread checks after
+     * every read that on-hand stock is not negative and reserved stock (on-hand minus available) not above it
+     */
+    private void hammer(Runnable order, Runnable restock) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(thread(start, failure, () -> {
+                for (int n = 0; n < ITERATIONS; n++) {
+                    order.run();
+                }
+            }));
+        }
+        List<Thread> helpers = new ArrayList<>();
+        helpers.add(thread(start, failure, () -> {
+            while (running.get()) {
+                assertThat(stockEngine.getOnHand(PRODUCT_ID)).isGreaterThanOrEqualTo(0);
+                assertThat(stockEngine.getAvailable(PRODUCT_ID)).isGreaterThanOrEqualTo(0);
+            }
+        }));
+        if (restock != null) {
+            helpers.add(thread(start, failure, () -> {
+                while (running.get()) {
+                    restock.run();
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.MINUTES.toMillis(1));
+            assertThat(worker.isAlive()).isFalse();
+        }
+        running.set(false);
+        for (Thread helper : helpers) {
+            helper.join();
+        }
+        assertThat(failure.get()).isNull();
+    }
+
+    private static Thread thread(CountDownLatch start, AtomicReference<Throwable> failure, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                start.await();
+                body.run();
+            } catch (Throwable e) {
+                failure.compareAndSet(null, e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}